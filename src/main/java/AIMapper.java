@@ -16,6 +16,11 @@ public class AIMapper extends Player.AI implements AI {
         return ai.play();
     }
 
+    @Override
+    public void close() {
+        ai.close();
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
@@ -13,6 +13,11 @@ import player.engine.GameEngine;
 
 public final class ContestRunner {
 
+    // search time given to the AIs compared at equal CPU, scaled down from the game's 1000ms and 100ms so that
+    // contests stay short
+    private static final long FIRST_TURN_MILLIS = 100;
+    private static final long TURN_MILLIS = 20;
+
     private ContestRunner() {
         // Main class
     }
@@ -41,6 +46,23 @@ public final class ContestRunner {
         return Arrays.asList(
                 playerInput -> () -> new AIMapper(
                         new Player.FloodFillAI(new Player.InputRepository(playerInput))),
+                playerInput -> () -> new AIMapper(
+                        new Player.FloodFillAI(
+                                new Player.InputRepository(playerInput),
+                                new Player.TimeBudget(FIRST_TURN_MILLIS, TURN_MILLIS),
+                                Player.GeneEncoding.RELATIVE,
+                                1,
+                                System.nanoTime())),
+                playerInput -> () -> new AIMapper(
+                        new Player.AlphaBetaAI(
+                                new Player.InputRepository(playerInput),
+                                new Player.TimeBudget(FIRST_TURN_MILLIS, TURN_MILLIS),
+                                new Player.VoronoiEvaluation())),
+                playerInput -> () -> new AIMapper(
+                        new Player.MctsAI(
+                                new Player.InputRepository(playerInput),
+                                new Player.TimeBudget(FIRST_TURN_MILLIS, TURN_MILLIS),
+                                new Player.SplitMixRandom())),
                 playerInput -> () -> new AIMapper(
                         new Player.RelaxedLongestSequenceAI(new Player.InputRepository(playerInput))),
                 playerInput -> () -> new AIMapper(
@@ -55,20 +77,20 @@ public final class ContestRunner {
 
     private static List<Supplier<GameEngine>> generateGameEngines() {
         // scenario 1 - one in the center, the other on the top corner
-        Player.Spot scenario11 = new Player.Spot(6, 2);
-        Player.Spot scenario12 = new Player.Spot(15, 10);
+        Player.Spot scenario11 = Player.Spot.of(6, 2);
+        Player.Spot scenario12 = Player.Spot.of(15, 10);
 
         // scenario 2 - both on opposite corners
-        Player.Spot scenario21 = new Player.Spot(6, 2);
-        Player.Spot scenario22 = new Player.Spot(23, 17);
+        Player.Spot scenario21 = Player.Spot.of(6, 2);
+        Player.Spot scenario22 = Player.Spot.of(23, 17);
 
         // scenario 3 - both close to center
-        Player.Spot scenario31 = new Player.Spot(10, 8);
-        Player.Spot scenario32 = new Player.Spot(20, 12);
+        Player.Spot scenario31 = Player.Spot.of(10, 8);
+        Player.Spot scenario32 = Player.Spot.of(20, 12);
 
         // scenario 4 - both close to top corner
-        Player.Spot scenario41 = new Player.Spot(6, 2);
-        Player.Spot scenario42 = new Player.Spot(2, 6);
+        Player.Spot scenario41 = Player.Spot.of(6, 2);
+        Player.Spot scenario42 = Player.Spot.of(2, 6);
 
         return Arrays.asList(
                 () -> PvPGE.withFreshBattleField(false, scenario11, scenario12),
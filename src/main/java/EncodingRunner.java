@@ -0,0 +1,63 @@
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the absolute and relative gene encodings of the {@link Player.FloodFillAI} on the same mid-game position:
+ * for several generation counts, prints the best score reached and how long the search took, averaged over several
+ * seeds.
+ */
+public final class EncodingRunner {
+
+    private static final int SEEDS = 20;
+    private static final int WARM_UP_ROUNDS = 3;
+    private static final int[] GENERATION_STEPS = { 0, 4, 16, 64, 256 };
+
+    private EncodingRunner() {
+        // Main class
+    }
+
+    public static void main(String args[]) {
+
+        // let the JIT compile the search before measuring it
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            for (Player.GeneEncoding encoding : Player.GeneEncoding.values()) {
+                run(encoding, 256);
+            }
+        }
+
+        System.out.println("generations,encoding,mean best score,mean search ms");
+        for (int generations : GENERATION_STEPS) {
+            for (Player.GeneEncoding encoding : Player.GeneEncoding.values()) {
+                System.out.println(generations + "," + encoding + "," + run(encoding, generations));
+            }
+        }
+    }
+
+    private static String run(Player.GeneEncoding encoding, int generations) {
+        double totalScore = 0.0;
+        long totalNanos = 0L;
+
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Player.FloodFillAI ai = aiOnMidGamePosition(encoding, generations, seed);
+
+            long start = System.nanoTime();
+            ai.play();
+            totalNanos += System.nanoTime() - start;
+
+            totalScore += ai.getPopulation().stream()
+                    .mapToDouble(Player.Chromosome::getScore)
+                    .max()
+                    .orElse(0.0);
+        }
+
+        return totalScore / SEEDS + "," + (double) TimeUnit.NANOSECONDS.toMicros(totalNanos / SEEDS) / 1000;
+    }
+
+    private static Player.FloodFillAI aiOnMidGamePosition(Player.GeneEncoding encoding, int generations, long seed) {
+        return MidGamePosition.feed(repository -> new Player.FloodFillAI(
+                repository,
+                new Player.GenerationsBudget(generations),
+                encoding,
+                1,
+                seed));
+    }
+}
@@ -14,8 +14,8 @@ public final class GameRunner {
 
         ExecutorService pool = Executors.newFixedThreadPool(5);
 
-        Player.Spot playerStartSpot = new Player.Spot(6, 2);
-        Player.Spot opponentStartSpot = new Player.Spot(3, 17);
+        Player.Spot playerStartSpot = Player.Spot.of(6, 2);
+        Player.Spot opponentStartSpot = Player.Spot.of(3, 17);
 
         Game game = new Game(
                 playerInput -> () -> new AIMapper(
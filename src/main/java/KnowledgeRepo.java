@@ -40,8 +40,8 @@ public class KnowledgeRepo extends Player.Repository {
             int Y1 = readInput(); // starting Y coordinate of lightcycle (can be the same as Y0 if you
             // play before this player)
 
-            Player.Spot startSpot = new Player.Spot(X0, Y0);
-            Player.Spot currentSpot = new Player.Spot(X1, Y1);
+            Player.Spot startSpot = Player.Spot.of(X0, Y0);
+            Player.Spot currentSpot = Player.Spot.of(X1, Y1);
 
             if ((P == 0) == (i == 0)) {
                 if (playerSpots.isEmpty() && !currentSpot.equals(startSpot)) {
@@ -85,26 +85,26 @@ public class KnowledgeRepo extends Player.Repository {
         possibleActions.addAll(Arrays.asList(Player.ActionsType.values()));
 
         if (spot.getX() - 1 < 0
-                || playerSpots.contains(new Player.Spot(spot.getX() - 1, spot.getY()))
-                || opponentSpots.contains(new Player.Spot(spot.getX() - 1, spot.getY()))) {
+                || playerSpots.contains(Player.Spot.of(spot.getX() - 1, spot.getY()))
+                || opponentSpots.contains(Player.Spot.of(spot.getX() - 1, spot.getY()))) {
             possibleActions.remove(Player.ActionsType.LEFT);
         }
 
         if (spot.getX() + 1 > (GRID_X - 1)
-                || playerSpots.contains(new Player.Spot(spot.getX() + 1, spot.getY()))
-                || opponentSpots.contains(new Player.Spot(spot.getX() + 1, spot.getY()))) {
+                || playerSpots.contains(Player.Spot.of(spot.getX() + 1, spot.getY()))
+                || opponentSpots.contains(Player.Spot.of(spot.getX() + 1, spot.getY()))) {
             possibleActions.remove(Player.ActionsType.RIGHT);
         }
 
         if (spot.getY() - 1 < 0
-                || playerSpots.contains(new Player.Spot(spot.getX(), spot.getY() - 1))
-                || opponentSpots.contains(new Player.Spot(spot.getX(), spot.getY() - 1))) {
+                || playerSpots.contains(Player.Spot.of(spot.getX(), spot.getY() - 1))
+                || opponentSpots.contains(Player.Spot.of(spot.getX(), spot.getY() - 1))) {
             possibleActions.remove(Player.ActionsType.UP);
         }
 
         if (spot.getY() + 1 > (GRID_Y - 1)
-                || playerSpots.contains(new Player.Spot(spot.getX(), spot.getY() + 1))
-                || opponentSpots.contains(new Player.Spot(spot.getX(), spot.getY() + 1))) {
+                || playerSpots.contains(Player.Spot.of(spot.getX(), spot.getY() + 1))
+                || opponentSpots.contains(Player.Spot.of(spot.getX(), spot.getY() + 1))) {
             possibleActions.remove(Player.ActionsType.DOWN);
         }
 
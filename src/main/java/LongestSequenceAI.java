@@ -6,10 +6,11 @@ public class LongestSequenceAI extends Player.GeneticAI {
 
     private static double evaluate(Player.TronSimulator engine, Player.Spot startAt, Player.ActionsType[] actions) {
         double score = 0.0;
+        int player = engine.playerIndex(startAt);
 
         for (Player.ActionsType action : actions) {
 
-            if (!engine.perform(startAt, action)) {
+            if (!engine.perform(player, action)) {
                 break;
             }
 
@@ -9,8 +9,8 @@ public final class MatchRunner {
 
     public static void main(String args[]) {
 
-        Player.Spot playerStartSpot = new Player.Spot(6, 2);
-        Player.Spot opponentStartSpot = new Player.Spot(3, 17);
+        Player.Spot playerStartSpot = Player.Spot.of(6, 2);
+        Player.Spot opponentStartSpot = Player.Spot.of(3, 17);
 
         Match match = new Match(
                 playerInput -> () -> new AIMapper(new SnailAI(new KnowledgeRepo(playerInput))),
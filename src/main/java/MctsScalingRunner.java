@@ -0,0 +1,56 @@
+/**
+ * Measures how the playouts of the {@link Player.MctsAI} scale with the threads sharing its tree: for 1 to N threads,
+ * prints the playouts per second reached on the same mid-game position, averaged over several searches, and the
+ * speedup over a single thread. N defaults to twice the available processors, or is given as first argument.
+ */
+public final class MctsScalingRunner {
+
+    private static final int ROUNDS = 10;
+    private static final int WARM_UP_ROUNDS = 5;
+    private static final long SEARCH_MILLIS = 500L;
+
+    private MctsScalingRunner() {
+        // Main class
+    }
+
+    public static void main(String args[]) {
+        int maxThreads = args.length > 0 ?
+                Integer.parseInt(args[0]) :
+                2 * Runtime.getRuntime().availableProcessors();
+
+        // let the JIT compile the search before measuring it
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            run(1);
+        }
+
+        System.out.println("available processors: " + Runtime.getRuntime().availableProcessors());
+        System.out.println("threads,mean playouts per second,speedup");
+
+        double single = 0.0;
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            double total = 0.0;
+            for (int round = 0; round < ROUNDS; round++) {
+                total += run(threads);
+            }
+
+            double playoutsPerSecond = total / ROUNDS;
+            if (threads == 1) {
+                single = playoutsPerSecond;
+            }
+            System.out.println(threads + "," + Math.round(playoutsPerSecond) + "," + playoutsPerSecond / single);
+        }
+    }
+
+    private static double run(int threads) {
+        try (Player.MctsAI ai = MidGamePosition.feed(repository -> new Player.MctsAI(
+                repository,
+                new Player.TimeBudget(SEARCH_MILLIS, SEARCH_MILLIS),
+                new Player.SplitMixRandom(threads),
+                Player.MctsAI.ARENA_CAPACITY,
+                threads))) {
+
+            ai.play();
+            return ai.getPlayoutsPerSecond();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.function.Function;
+
+/**
+ * The mid-game position the runners measure AIs on: the player went down the left side for ten turns while the
+ * opponent went left from the right side.
+ */
+final class MidGamePosition {
+
+    private MidGamePosition() {
+        // Utility class
+    }
+
+    /**
+     * @param ai creates the AI on the repository the turns are read from
+     * @return the AI, once fed the ten turns
+     */
+    static <T extends Player.AI> T feed(Function<Player.InputRepository, T> ai) {
+        Queue<Integer> input = new ArrayDeque<>();
+        T fed = ai.apply(new Player.InputRepository(input::remove));
+
+        for (int turn = 0; turn <= 10; turn++) {
+            feed(input, 2, 0, 5, 2, 5, 2 + turn, 25, 10, 25 - turn, 10);
+            fed.updateRepository();
+        }
+
+        return fed;
+    }
+
+    private static void feed(Queue<Integer> input, int... values) {
+        for (int value : values) {
+            input.add(value);
+        }
+    }
+}
@@ -8,19 +8,33 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Random;
 import java.util.Scanner;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 final class Player {
 
+    // the game's time limits, with some margin
+    static final long FIRST_TURN_MILLIS = 900;
+    static final long TURN_MILLIS = 90;
+
     public static void main(String args[]) {
         Scanner in = new Scanner(System.in);
 
         InputRepository repo = new InputRepository(in::nextInt);
-        AI ai = new FloodFillAI(repo);
+        AI ai = new FloodFillAI(repo, new TimeBudget(FIRST_TURN_MILLIS, TURN_MILLIS), 1, System.nanoTime());
 
         while (true) {
             ai.updateRepository();
@@ -33,30 +47,72 @@ final class Player {
 
     /**
      * Simulates the game on a relaxed mode, that is, players are never taken out of the grid when they die.
+     * <p>
+     * Every successful movement is recorded in an undo journal, so a single simulator can be reused for several
+     * simulations by rewinding it to a previous {@link #mark()}.
+     * <p>
+     * Internally, players are indexed from 0 and positions are cell indexes (see {@link GridSize#cellOf(int, int)});
+     * the {@link Spot} based methods are adapters on top of this primitive API.
      */
     public static final class TronSimulator {
 
-        private static final int MAX_X = 30;
-        private static final int MAX_Y = 20;
+        private final GridSize gridSize;
+
+        // players' index by their start spot
+        private final Map<Spot, Integer> players;
+        private final int[] startCells;
 
-        private final BattleFieldSnapshot snapshot;
+        // players' heading on the snapshot, relative turns are decoded from them
+        private final ActionsType[] headings;
 
         // mutable internal state
-        private final boolean[][] grid;
-        private final Map<Spot, Spot> currentSpots;
+        private final BitBoard grid;
+        private final int[] currentCells;
         private int availableSpotsCnt;
+        private long hash;
+
+        // lazily allocated, confined to this simulator like the rest of its state
+        private BitFloodFill floodFill;
+
+        // undo journal: the player that moved and where it was before moving
+        private final int[] journalPlayers;
+        private final int[] journalPreviousCells;
+        private int journalSize;
+
+        // movements already simulated on behalf of the next caller, see replay
+        private ActionsType[] replayActions;
+        private boolean[] replayResults;
+        private int replayPlayer;
+        private int replayLength;
+        private int replayCursor;
 
         public TronSimulator(BattleFieldSnapshot snapshot) {
 
-            this.snapshot = snapshot;
+            this.gridSize = snapshot.getGridSize();
 
-            this.grid = new boolean[MAX_Y][MAX_X];
+            // the arena's occupancy is copied as a whole, so a single bit test tells whether a spot is taken
+            this.grid = new BitBoard(snapshot.getGrid());
 
             Set<Spot> startSpots = snapshot.getStartSpots();
-            this.currentSpots = new HashMap<>(startSpots.size());
-            startSpots.forEach(s -> this.currentSpots.put(s, snapshot.getCurrentSpot(s)));
+            this.players = new HashMap<>(startSpots.size());
+            this.startCells = new int[startSpots.size()];
+            this.currentCells = new int[startSpots.size()];
+            this.headings = new ActionsType[startSpots.size()];
+            for (Spot startSpot : startSpots) {
+                int player = players.size();
+                players.put(startSpot, player);
+                startCells[player] = gridSize.cellOf(startSpot);
+                currentCells[player] = gridSize.cellOf(snapshot.getCurrentSpot(startSpot));
+                headings[player] = snapshot.getHeading(startSpot);
+            }
 
             this.availableSpotsCnt = snapshot.getAvailableSpotsCount();
+            this.hash = snapshot.getHash();
+
+            // each successful movement takes a free spot, so the journal can never outgrow the free area
+            this.journalPlayers = new int[availableSpotsCnt];
+            this.journalPreviousCells = new int[availableSpotsCnt];
+            this.journalSize = 0;
         }
 
         /**
@@ -67,79 +123,348 @@ final class Player {
          * @return true if action has been successful, false if action kills the player.
          */
         public boolean perform(Spot startAt, ActionsType action) {
-            Spot currentSpot = currentSpots.get(startAt);
+            return perform(playerIndex(startAt), action);
+        }
 
-            if (currentSpot == null) {
-                throw new IllegalStateException("Unknown player starting at " + startAt);
+        /**
+         * Simulates the action for a specific player
+         *
+         * @param player the player index, as returned by {@link #playerIndex(Spot)}
+         * @param action where to go
+         * @return true if action has been successful, false if action kills the player.
+         */
+        public boolean perform(int player, ActionsType action) {
+            if (replayCursor < replayLength) {
+                return replayed(player, action);
             }
 
-            Spot next = currentSpot.next(action);
+            int currentCell = currentCells[player];
+            int next = gridSize.neighbour(currentCell, action);
 
-            if (!getGridSize().isWithinGrid(next) || hasBeenVisited(next)) {
+            if (next < 0 || grid.get(next)) {
                 return false;
             }
 
-            currentSpots.put(startAt, next);
-            grid[next.getY()][next.getX()] = true;
+            currentCells[player] = next;
+            grid.set(next);
             availableSpotsCnt--;
+            hash ^= Zobrist.occupied(next) ^
+                    Zobrist.head(startCells[player], currentCell) ^
+                    Zobrist.head(startCells[player], next);
+
+            journalPlayers[journalSize] = player;
+            journalPreviousCells[journalSize] = currentCell;
+            journalSize++;
 
             return true;
         }
 
+        private boolean replayed(int player, ActionsType action) {
+            if (player != replayPlayer || action != replayActions[replayCursor]) {
+                throw new IllegalStateException(
+                        "Expected player " + replayPlayer + " to replay " + replayActions[replayCursor] +
+                                ", got player " + player + " performing " + action);
+            }
+
+            return replayResults[replayCursor++];
+        }
+
+        /**
+         * Serves the next movements of a player from already known results instead of simulating them. The simulator
+         * must already be in the state reached after those movements, and the next calls to
+         * {@link #perform(int, ActionsType)} must ask for exactly the same movements. Rewinding the simulator ends the
+         * replay.
+         * <p>
+         * This allows to share the simulation of common prefixes between plans while evaluation functions stay unaware
+         * of it.
+         *
+         * @param player the player index
+         * @param actions the movements to be replayed
+         * @param results the result of each movement
+         * @param length how many movements are replayed
+         */
+        public void replay(int player, ActionsType[] actions, boolean[] results, int length) {
+            this.replayPlayer = player;
+            this.replayActions = actions;
+            this.replayResults = results;
+            this.replayLength = length;
+            this.replayCursor = 0;
+        }
+
+        /**
+         * Performs movements whose results are already known, without checking whether the targeted spots are
+         * available. The simulator must be in the state those results have been computed from.
+         *
+         * @param player the player index
+         * @param actions the movements to be performed
+         * @param results the result of each movement, one bit per movement
+         * @param length how many movements are performed
+         */
+        public void fastForward(int player, ActionsType[] actions, long[] results, int length) {
+            for (int i = 0; i < length; i++) {
+                if ((results[i >>> 6] & 1L << i) == 0) {
+                    continue;
+                }
+
+                int currentCell = currentCells[player];
+                int next = gridSize.neighbour(currentCell, actions[i]);
+
+                currentCells[player] = next;
+                grid.set(next);
+                availableSpotsCnt--;
+                hash ^= Zobrist.occupied(next) ^
+                        Zobrist.head(startCells[player], currentCell) ^
+                        Zobrist.head(startCells[player], next);
+
+                journalPlayers[journalSize] = player;
+                journalPreviousCells[journalSize] = currentCell;
+                journalSize++;
+            }
+        }
+
+        /**
+         * @return a marker of the current simulation state that can be later used to {@link #rewind(int)} to it
+         */
+        public int mark() {
+            return journalSize;
+        }
+
+        /**
+         * Undoes all movements performed since the given marker was taken
+         *
+         * @param mark a marker previously returned by {@link #mark()}
+         */
+        public void rewind(int mark) {
+            if (mark < 0 || mark > journalSize) {
+                throw new IllegalArgumentException("Cannot rewind to " + mark + ", journal size is " + journalSize);
+            }
+
+            replayLength = 0;
+            replayCursor = 0;
+
+            while (journalSize > mark) {
+                journalSize--;
+
+                int player = journalPlayers[journalSize];
+                int currentCell = currentCells[player];
+                int previousCell = journalPreviousCells[journalSize];
+
+                grid.clear(currentCell);
+                currentCells[player] = previousCell;
+                availableSpotsCnt++;
+                hash ^= Zobrist.occupied(currentCell) ^
+                        Zobrist.head(startCells[player], currentCell) ^
+                        Zobrist.head(startCells[player], previousCell);
+            }
+        }
+
+        /**
+         * Brings the simulator back to the snapshot it has been created from
+         */
+        public void reset() {
+            rewind(0);
+        }
+
+        /**
+         * @return the index used by the primitive API for the player starting at the given spot
+         */
+        public int playerIndex(Spot startAt) {
+            Integer player = players.get(startAt);
+
+            if (player == null) {
+                throw new IllegalStateException("Unknown player starting at " + startAt);
+            }
+
+            return player;
+        }
+
         public boolean hasBeenVisited(Spot spot) {
             return hasBeenVisited(spot.getX(), spot.getY());
         }
 
         public boolean hasBeenVisited(int x, int y) {
-            return grid[y][x] || snapshot.hasBeenVisited(x, y);
+            return grid.get(x, y);
+        }
+
+        public boolean hasBeenVisited(int cell) {
+            return grid.get(cell);
         }
 
         public Spot getCurrentSpot(Spot startSpot) {
-            if (!currentSpots.containsKey(startSpot)) {
-                throw new IllegalStateException("Unknown player starting at " + startSpot);
-            }
+            return gridSize.spotOf(currentCells[playerIndex(startSpot)]);
+        }
+
+        public int getCurrentCell(int player) {
+            return currentCells[player];
+        }
 
-            return currentSpots.get(startSpot);
+        /**
+         * @return the last movement of the player on the snapshot, whatever has been simulated since
+         */
+        public ActionsType getHeading(int player) {
+            return headings[player];
         }
 
         public Set<Spot> getStartSpots() {
-            return currentSpots.keySet();
+            return players.keySet();
         }
 
         public GridSize getGridSize() {
-            return snapshot.getGridSize();
+            return gridSize;
+        }
+
+        /**
+         * @return the live occupancy board of the simulation; callers must not modify it
+         */
+        public BitBoard getGrid() {
+            return grid;
+        }
+
+        /**
+         * Computes the available area within the simulated arena from a given target cell
+         *
+         * @param cell the target cell. It might be an occupied spot.
+         * @see BitFloodFill#area(BitBoard, int)
+         */
+        public int floodFillArea(int cell) {
+            if (floodFill == null) {
+                floodFill = new BitFloodFill(gridSize);
+            }
+
+            return floodFill.area(grid, cell);
         }
 
         public int getAvailableSpotsCount() {
             return availableSpotsCnt;
         }
+
+        /**
+         * @return the Zobrist key of the simulated arena, consistent with {@link BattleField#getHash()}
+         */
+        public long getHash() {
+            return hash;
+        }
     }
 
+    /**
+     * Evolves movements scored by the area they leave within reach. Once the light cycle is walled off from its
+     * opponents, the genetic search gives way to the {@link EndgameSolver}.
+     */
     static class FloodFillAI extends GeneticAI {
 
+        private static final int FITNESS_CACHE_CAPACITY = 4096;
+        private static final int ENDGAME_NODE_LIMIT = 5_000;
+        private static final int ENDGAME_MEMO_CAPACITY = 1 << 16;
+
+        private final InputRepository repo;
+        private EndgameSolver endgame;
+
         public FloodFillAI(InputRepository repository) {
-            super(64, 32, 256, .7, .02, repository, FloodFillAI::evaluate);
+            super(64, 32, 256, .7, .02, repository, (CutoffEvaluationFunction) FloodFillAI::evaluate);
+            this.repo = repository;
+        }
+
+        /**
+         * @param parallelism how many threads evaluate chromosomes, 1 evaluates them on the calling thread
+         * @param seed the seed of the genetic search, the same seed always leads to the same moves
+         */
+        public FloodFillAI(InputRepository repository, int parallelism, long seed) {
+            this(repository, new GenerationsBudget(256), parallelism, seed);
+        }
+
+        /**
+         * @param budget how long each turn's search may run
+         * @param parallelism how many threads evaluate chromosomes, 1 evaluates them on the calling thread
+         * @param seed the seed of the genetic search
+         */
+        public FloodFillAI(InputRepository repository, SearchBudget budget, int parallelism, long seed) {
+            this(repository, budget, GeneEncoding.ABSOLUTE, parallelism, seed);
+        }
+
+        /**
+         * @param budget how long each turn's search may run
+         * @param encoding how genes map to movements
+         * @param parallelism how many threads evaluate chromosomes, 1 evaluates them on the calling thread
+         * @param seed the seed of the genetic search
+         */
+        public FloodFillAI(
+                InputRepository repository, SearchBudget budget, GeneEncoding encoding, int parallelism, long seed) {
+
+            super(true, 64, 32, budget, .7, .02,
+                    new TournamentSelection(2),
+                    new SplitMixRandom(seed),
+                    new CachingPopulationEvaluator(
+                            parallelism > 1 ?
+                                    new ParallelPopulationEvaluator(parallelism) :
+                                    new ResumingPopulationEvaluator(),
+                            FITNESS_CACHE_CAPACITY),
+                    true,
+                    encoding,
+                    repository,
+                    (CutoffEvaluationFunction) FloodFillAI::evaluate);
+            this.repo = repository;
+        }
+
+        @Override
+        public Action[] play() {
+            BattleFieldSnapshot battleField = repo.getBattleField();
+            GridSize gridSize = battleField.getGridSize();
+            if (endgame == null) {
+                endgame = new EndgameSolver(gridSize, ENDGAME_NODE_LIMIT, ENDGAME_MEMO_CAPACITY);
+            }
+
+            Spot startSpot = repo.getPlayerLightCycleStartSpot();
+            int[] opponentCells = battleField.getStartSpots().stream()
+                    .filter(spot -> !spot.equals(startSpot))
+                    .mapToInt(spot -> gridSize.cellOf(battleField.getCurrentSpot(spot)))
+                    .toArray();
+
+            ActionsType endgameMove = endgame.solve(
+                    battleField.getGrid(),
+                    gridSize.cellOf(battleField.getCurrentSpot(startSpot)),
+                    opponentCells,
+                    getBudget());
+
+            return endgameMove == null ? super.play() : new Action[] { new Action(endgameMove) };
+        }
+
+        /**
+         * @return the solver playing the endgame, null until the first turn
+         */
+        EndgameSolver getEndgame() {
+            return endgame;
         }
 
-        private static double evaluate(TronSimulator engine, Spot startAt, ActionsType[] actions) {
+        static double evaluate(TronSimulator engine, Spot startAt, ActionsType[] actions, double cutoff) {
+
             double weight = 1.0;
+            int player = engine.playerIndex(startAt);
 
             for (ActionsType action : actions) {
-                if (!engine.perform(startAt, action)) {
+                if (!engine.perform(player, action)) {
                     weight = weight - (1.0 / actions.length);
+
+                    // the targetable area never exceeds the available spots, so the weight bounds the score, while
+                    // an empty area is all that is known without flooding
+                    if (weight < cutoff) {
+                        return 0.0;
+                    }
                 }
             }
 
-            int targetableArea = floodFillArea(
-                    spot -> !engine.hasBeenVisited(spot),
-                    engine.getGridSize(),
-                    engine.getCurrentSpot(startAt));
+            if (weight < cutoff) {
+                return 0.0;
+            }
+
+            int targetableArea = engine.floodFillArea(engine.getCurrentCell(player));
 
             return ((double) targetableArea / engine.getAvailableSpotsCount()) * weight;
         }
 
         /**
-         * Computes the available area within a grid from a given target point
+         * Computes the available area within a grid from a given target point. This is the reference implementation
+         * the faster flood fills are tested against, see {@link #floodFillArea(AvailableCell, GridSize, int)} and
+         * {@link TronSimulator#floodFillArea(int)}.
          *
          * @param availableSpot a function that computes whether a spot is or is not available to be moved in
          * @param gridSize the grid size evaluator
@@ -199,6 +524,43 @@ final class Player {
             return size - (availableSpot.evaluate(target) ? 0 : 1);
         }
 
+        /**
+         * Computes the available area within a grid from a given target cell, on an array stack of cell indexes
+         *
+         * @param availableCell a function that computes whether a cell is or is not available to be moved in
+         * @param gridSize the grid size evaluator
+         * @param target a target cell to start the algorithm. It might be an occupied cell.
+         */
+        static int floodFillArea(AvailableCell availableCell, GridSize gridSize, int target) {
+            boolean[] colored = new boolean[gridSize.getCellsCount()];
+            colored[target] = true;
+
+            int size = 0;
+
+            int[] evaluationStack = new int[gridSize.getCellsCount()];
+            int stackSize = 0;
+            evaluationStack[stackSize++] = target;
+
+            while (stackSize > 0) {
+                size++;
+
+                int last = evaluationStack[--stackSize];
+
+                for (ActionsType type : ActionsType.values()) {
+                    int next = gridSize.neighbour(last, type);
+
+                    if (next >= 0 && !colored[next] && availableCell.evaluate(next)) {
+                        evaluationStack[stackSize++] = next;
+                        colored[next] = true;
+                    }
+                }
+            }
+
+            // In order to optimize field evaluation, we consider the first spot as a free one and we decrement the
+            // final result by 1 if it was not
+            return size - (availableCell.evaluate(target) ? 0 : 1);
+        }
+
         @Override
         public String toString() {
             return "FloodFillAI{}" + super.toString();
@@ -209,8 +571,11 @@ final class Player {
 
         private static final long MAX_VALUE = fibonacci(64);
 
+        // best sum of weights the remaining moves can add once the weight is reset, by number of remaining moves
+        private static final long[] BEST_REMAINING_SUMS = bestRemainingSums(64);
+
         public FibonacciLongestSequenceAI(InputRepository repository) {
-            super(64, 32, 256, .7, .02, repository, FibonacciLongestSequenceAI::evaluate);
+            super(64, 32, 256, .7, .02, repository, (CutoffEvaluationFunction) FibonacciLongestSequenceAI::evaluate);
         }
 
         private static long fibonacci(int size) {
@@ -227,21 +592,48 @@ final class Player {
             return next;
         }
 
-        private static double evaluate(TronSimulator engine, Spot startAt, ActionsType[] actions) {
+        private static long[] bestRemainingSums(int size) {
+            long[] sums = new long[size + 1];
+
+            long weight = 1L;
+            long previousWeight = 0L;
+
+            for (int i = 1; i <= size; i++) {
+                long tmp = weight;
+                weight += previousWeight;
+                previousWeight = tmp;
+
+                sums[i] = sums[i - 1] + weight;
+            }
+
+            return sums;
+        }
+
+        static double evaluate(TronSimulator engine, Spot startAt, ActionsType[] actions, double cutoff) {
             double score = 0.0;
 
             long weight = 1L;
             long previousWeight = 0L;
+            int player = engine.playerIndex(startAt);
 
-            for (ActionsType action : actions) {
+            for (int i = 0; i < actions.length; i++) {
 
-                if (engine.perform(startAt, action)) {
+                if (engine.perform(player, actions[i])) {
                     long tmp = weight;
                     weight += previousWeight;
                     previousWeight = tmp;
                 } else {
                     weight = 1L;
                     previousWeight = 0L;
+
+                    // every remaining move adds a weight of at least one
+                    int remaining = actions.length - i - 1;
+                    if (remaining < BEST_REMAINING_SUMS.length) {
+                        double bound = (score + weight + BEST_REMAINING_SUMS[remaining]) / MAX_VALUE;
+                        if (bound < cutoff) {
+                            return (score + weight + remaining) / MAX_VALUE;
+                        }
+                    }
                 }
 
                 score += weight;
@@ -259,15 +651,21 @@ final class Player {
     static class RelaxedLongestSequenceAI extends GeneticAI {
 
         public RelaxedLongestSequenceAI(InputRepository repository) {
-            super(64, 32, 256, .7, .02, repository, RelaxedLongestSequenceAI::evaluate);
+            super(64, 32, 256, .7, .02, repository, (CutoffEvaluationFunction) RelaxedLongestSequenceAI::evaluate);
         }
 
-        private static double evaluate(TronSimulator engine, Spot startAt, ActionsType[] actions) {
+        static double evaluate(TronSimulator engine, Spot startAt, ActionsType[] actions, double cutoff) {
             double score = 0.0;
+            int player = engine.playerIndex(startAt);
 
-            for (ActionsType action : actions) {
-                if (engine.perform(startAt, action)) {
+            for (int i = 0; i < actions.length; i++) {
+                if (engine.perform(player, actions[i])) {
                     score += 1.0;
+                } else {
+                    double bound = (score + actions.length - i - 1) / actions.length;
+                    if (bound < cutoff) {
+                        return score / actions.length;
+                    }
                 }
             }
 
@@ -282,41 +680,83 @@ final class Player {
 
     public static class GeneticAI extends AI {
 
-        private static final ActionsType[] POSSIBLE_ACTIONS = ActionsType.values();
-        private static final int TOURNAMENT_SIZE = 2;
-
         private final boolean eletism;
-        private final Random random;
+        private final RandomGenerator random;
         private final InputRepository repo;
         private final int geneLength;
         private final int popSize;
-        private final int generations;
+        private final SearchBudget budget;
         private final double crossoverRate;
         private final double mutationRate;
+        private final SelectionStrategy selection;
         private final EvaluationFunction evaluationFunction;
+        private final PopulationEvaluator populationEvaluator;
+        private final boolean warmStart;
+        private final GeneEncoding encoding;
+
+        private final GenerationStats stats;
 
+        private List<Chromosome> population;
+        private int completedGenerations;
+
+        /**
+         * @param budget how long each turn's search may run
+         * @param selection how parents are picked from each generation
+         * @param random drives every random decision of the search; chromosomes are only bred on the calling
+         *         thread, so a seeded generator fully reproduces the search whatever the population evaluator is
+         * @param populationEvaluator how each generation gets scored
+         * @param warmStart whether the population evolved on a turn seeds the next one, instead of starting over
+         *         from random chromosomes
+         * @param encoding how genes map to movements
+         */
         public GeneticAI(
                 boolean eletism,
                 int geneLength,
                 int popSize,
-                int generations,
+                SearchBudget budget,
                 double crossoverRate,
                 double mutationRate,
+                SelectionStrategy selection,
+                RandomGenerator random,
+                PopulationEvaluator populationEvaluator,
+                boolean warmStart,
+                GeneEncoding encoding,
                 InputRepository repo,
                 EvaluationFunction evaluationFunction) {
 
             super(repo);
             this.eletism = eletism;
+            this.warmStart = warmStart;
+            this.encoding = encoding;
+            this.population = Collections.emptyList();
+            this.stats = new GenerationStats();
             this.geneLength = geneLength;
             this.popSize = popSize;
-            this.generations = generations;
+            this.budget = budget;
             this.crossoverRate = crossoverRate;
             this.mutationRate = mutationRate;
+            this.selection = selection;
             this.evaluationFunction = evaluationFunction;
-            this.random = new Random();
+            this.populationEvaluator = populationEvaluator;
+            this.random = random;
             this.repo = repo;
         }
 
+        public GeneticAI(
+                boolean eletism,
+                int geneLength,
+                int popSize,
+                int generations,
+                double crossoverRate,
+                double mutationRate,
+                InputRepository repo,
+                EvaluationFunction evaluationFunction) {
+
+            this(eletism, geneLength, popSize, new GenerationsBudget(generations), crossoverRate, mutationRate,
+                    new TournamentSelection(2), new SplitMixRandom(), new SerialPopulationEvaluator(), true,
+                    GeneEncoding.ABSOLUTE, repo, evaluationFunction);
+        }
+
         public GeneticAI(
                 int geneLength,
                 int popSize,
@@ -329,18 +769,25 @@ final class Player {
             this(true, geneLength, popSize, generations, crossoverRate, mutationRate, repo, evaluationFunction);
         }
 
+        @Override
+        public void updateRepository() {
+            super.updateRepository();
+            budget.startTurn();
+        }
+
         @Override
         public Action[] play() {
-            // long currentTimeMillis = System.currentTimeMillis();
-            Chromosome chromosome = find(geneLength, popSize, generations);
-            // System.err.println(System.currentTimeMillis() - currentTimeMillis);
+            Chromosome chromosome = find(geneLength, popSize);
 
             BattleFieldSnapshot battleField = repo.getBattleField();
 
             Spot startSpot = repo.getPlayerLightCycleStartSpot();
             Spot currentSpot = battleField.getCurrentSpot(startSpot);
 
-            Optional<ActionsType> maybeNextValidMove = Arrays.stream(chromosome.genes)
+            ActionsType[] movements = new ActionsType[chromosome.getGeneLength()];
+            chromosome.decode(battleField.getHeading(startSpot), movements);
+
+            Optional<ActionsType> maybeNextValidMove = Arrays.stream(movements)
                     .filter(actionsType -> {
                         //FIXME: it shouldn't be able to walk through himself
                         Spot next = currentSpot.next(actionsType);
@@ -352,148 +799,180 @@ final class Player {
             return new Action[] { new Action(nextAction) };
         }
 
-        private Chromosome find(int movements, int popSize, int generations) {
+        /**
+         * @return how many generations the last search has evolved
+         */
+        public int getCompletedGenerations() {
+            return completedGenerations;
+        }
+
+        public PopulationEvaluator getPopulationEvaluator() {
+            return populationEvaluator;
+        }
 
-            // Create the pool
-            List<Chromosome> pool = new ArrayList<>(popSize);
-            List<Chromosome> newPool = new ArrayList<>(popSize);
+        @Override
+        public void close() {
+            super.close();
+            populationEvaluator.close();
+        }
 
-            BattleFieldSnapshot battleFieldSnapshot = repo.getBattleField();
+        /**
+         * @return the statistics of the last search, from its initial population on
+         */
+        public GenerationStats getStats() {
+            return stats;
+        }
 
-            // Generate unique chromosomes in the pool
-            for (int i = 0; i < popSize; i++) {
+        /**
+         * @return the population evolved on the last turn
+         */
+        List<Chromosome> getPopulation() {
+            return Collections.unmodifiableList(population);
+        }
 
-                ActionsType[] genes = generateRandomMovements(movements);
-                // FIXME: for now, we are only able to simulate player's movements
-                Chromosome chromosome =
-                        new Chromosome(genes, evaluationFunction, repo.getPlayerLightCycleStartSpot(), random);
+        private Chromosome find(int movements, int popSize) {
 
-                chromosome.evaluate(new TronSimulator(battleFieldSnapshot));
+            // Create the pool
+            List<Chromosome> pool = new ArrayList<>(popSize);
 
-                pool.add(chromosome);
-            }
+            populationEvaluator.prepare(repo.getBattleField());
 
-            // System.err.println("===");
-            // Loop until solution is found
-            for (int generation = 0; generation < generations; generation++) {
-                // Clear the new pool
-                newPool.clear();
+            if (warmStart && !population.isEmpty()) {
+                // A move has been played since last turn: plans move forward by one gene
+                for (Chromosome chromosome : population) {
+                    pool.add(chromosome.shift());
+                }
+            } else {
+                // Generate unique chromosomes in the pool
+                for (int i = 0; i < popSize; i++) {
 
-                if (eletism) {
-                    int bestIndex = 0;
-                    Chromosome best = pool.get(0);
-                    for (int i = 1; i < pool.size(); i++) {
-                        Chromosome chromosome = pool.get(i);
-                        if (chromosome.getScore() > best.getScore()) {
-                            bestIndex = i;
-                            best = chromosome;
-                        }
-                    }
+                    // FIXME: for now, we are only able to simulate player's movements
+                    Chromosome chromosome = Chromosome.random(
+                            movements, encoding, evaluationFunction, repo.getPlayerLightCycleStartSpot(), random);
 
-                    pool.remove(bestIndex);
-                    newPool.add(best);
+                    pool.add(chromosome);
                 }
+            }
 
-                // Loop until the pool has been processed
-                for (int x = pool.size() - 1; x >= 0; x -= 2) {
-                    // Select two members
-                    // Chromosome[] parents = selectParents(pool);
+            populationEvaluator.evaluate(pool);
 
-                    Chromosome[] parents = new Chromosome[2];
-                    parents[0] = tournamentSelection(pool);
-                    parents[1] = tournamentSelection(pool);
+            stats.clear();
+            stats.record(pool);
 
-                    // Cross over and mutate
-                    Chromosome[] children;
-                    if (random.nextFloat() <= crossoverRate) {
-                        children = parents[0].crossOver(parents[1]);
-                    } else {
-                        children = parents;
-                    }
+            completedGenerations = evolve(pool);
+            population = pool;
 
-                    if (random.nextFloat() <= mutationRate) {
-                        children[0] = children[0].mutate();
-                    }
+            return pool.stream()
+                    .max(Comparator.comparingDouble(Chromosome::getScore))
+                    .orElseThrow(() -> new IllegalStateException("Pool should contain at least one chromosome"));
+        }
 
-                    if (random.nextFloat() <= mutationRate) {
-                        children[1] = children[1].mutate();
-                    }
+        /**
+         * Evolves an evaluated pool until the budget is exhausted
+         *
+         * @param pool the evaluated population, replaced by the evolved one
+         * @return how many generations have been evolved
+         */
+        protected int evolve(List<Chromosome> pool) {
+            List<Chromosome> newPool = new ArrayList<>(pool.size());
+
+            // Loop until the budget is exhausted
+            int generation;
+            for (generation = 0; budget.hasNext(generation, stats); generation++) {
+                nextGeneration(pool, newPool, random, populationEvaluator);
+                stats.record(pool);
+            }
 
-                    // evaluate new nodes
-                    children[0].evaluate(new TronSimulator(battleFieldSnapshot));
-                    children[1].evaluate(new TronSimulator(battleFieldSnapshot));
+            return generation;
+        }
 
-                    // Add to the new pool
-                    newPool.add(children[0]);
-                    newPool.add(children[1]);
+        /**
+         * Breeds and evaluates the next generation of a pool
+         *
+         * @param pool the evaluated population, replaced by the next generation
+         * @param newPool a buffer for the next generation
+         * @param random drives selection, cross over and mutation
+         * @param evaluator scores the new chromosomes
+         */
+        protected final void nextGeneration(
+                List<Chromosome> pool,
+                List<Chromosome> newPool,
+                RandomGenerator random,
+                PopulationEvaluator evaluator) {
+
+            // Clear the new pool
+            newPool.clear();
+
+            if (eletism) {
+                int bestIndex = 0;
+                Chromosome best = pool.get(0);
+                for (int i = 1; i < pool.size(); i++) {
+                    Chromosome chromosome = pool.get(i);
+                    if (chromosome.getScore() > best.getScore()) {
+                        bestIndex = i;
+                        best = chromosome;
+                    }
                 }
 
-                // Add the newPool back to the old pool
-                pool.clear();
-                pool.addAll(newPool);
-
-                // double totalScore = newPool.stream()
-                // .mapToDouble(Chromosome::getScore)
-                // .sum();
-                //
-                // System.err.println(generation + "," + totalScore);
+                pool.remove(bestIndex);
+                newPool.add(best);
             }
 
-            Chromosome best = newPool.stream()
-                    .max(Comparator.comparingDouble(Chromosome::getScore))
-                    .orElseThrow(() -> new IllegalStateException("Pool should contain at least one chromosome"));
+            Selector selector = selection.over(pool);
 
-            // System.err.println(best.getScore());
-            // System.err.println("===");
-            return best;
-        }
+            // Loop until the pool has been processed
+            for (int x = pool.size() - 1; x >= 0; x -= 2) {
+                // Select two members
+                // Chromosome[] parents = selectParents(pool);
 
-        // FIXME: generic selection function
-        Chromosome rouletteSelect(List<Chromosome> population) {
-            // calculate the total weight
-            double weight_sum = population.stream()
-                    .mapToDouble(Chromosome::getScore)
-                    .sum();
+                Chromosome[] parents = new Chromosome[2];
+                parents[0] = selector.select(random);
+                parents[1] = selector.select(random);
 
-            // get a random value
-            double value = random.nextDouble() * weight_sum;
+                // Cross over and mutate
+                Chromosome[] children;
+                if (random.nextFloat() <= crossoverRate) {
+                    children = parents[0].crossOver(parents[1]);
+                } else {
+                    children = parents;
+                }
 
-            // locate the random value based on the weights
-            for (int i = 0; i < population.size(); i++) {
-                Chromosome individual = population.get(i);
-                value -= individual.getScore();
-                if (value <= 0) {
-                    // FIXME: strongest have preference
-                    return individual;
+                if (random.nextFloat() <= mutationRate) {
+                    children[0] = children[0].mutate();
                 }
-            }
 
-            // when rounding errors occur, we return the last item's index
-            return population.get(population.size() - 1);
-        }
+                if (random.nextFloat() <= mutationRate) {
+                    children[1] = children[1].mutate();
+                }
 
-        private Chromosome tournamentSelection(List<Chromosome> population) {
+                // Add to the new pool
+                newPool.add(children[0]);
+                newPool.add(children[1]);
+            }
 
-            Chromosome best = population.get(random.nextInt(population.size()));
-            for (int j = 1; j < TOURNAMENT_SIZE; j++) {
-                Chromosome candidate = population.get(random.nextInt(population.size()));
-                if (candidate.getScore() > best.getScore()) {
-                    best = candidate;
-                }
+            // evaluate new nodes, the elite has already been evaluated; since it is carried over, chromosomes that
+            // cannot beat it need not be scored exactly
+            if (eletism) {
+                evaluator.evaluate(newPool.subList(1, newPool.size()), newPool.get(0).getScore());
+            } else {
+                evaluator.evaluate(newPool);
             }
 
-            return best;
+            // Add the newPool back to the old pool
+            pool.clear();
+            pool.addAll(newPool);
         }
 
-        private ActionsType[] generateRandomMovements(int movements) {
-
-            ActionsType[] actions = new ActionsType[movements];
+        protected final SearchBudget getBudget() {
+            return budget;
+        }
 
-            for (int i = 0; i < movements; i++) {
-                actions[i] = POSSIBLE_ACTIONS[random.nextInt(POSSIBLE_ACTIONS.length)];
-            }
+        protected final RandomGenerator getRandom() {
+            return random;
+        }
 
-            return actions;
+        protected final InputRepository getRepository() {
+            return repo;
         }
 
         @Override
@@ -501,290 +980,3616 @@ final class Player {
             return "GeneticAI{" +
                     "geneLength=" + geneLength +
                     ", popSize=" + popSize +
-                    ", generations=" + generations +
+                    ", budget=" + budget +
                     ", crossoverRate=" + crossoverRate +
                     ", mutationRate=" + mutationRate +
+                    ", selection=" + selection +
+                    ", encoding=" + encoding +
                     "} ";
         }
     }
 
-    private static class Chromosome implements Comparable<Chromosome> {
-
-        private static final ActionsType[] POSSIBLE_ACTIONS = ActionsType.values();
+    /**
+     * Evolves several sub-populations, the islands, each one on its own thread. Islands share nothing but a
+     * {@link MigrationExchange}: every few generations, each island posts copies of its best chromosomes to the next
+     * island on a ring, and takes in the ones posted to it, if any, in place of its worst chromosomes. Posting and
+     * taking are single atomic operations, so islands never wait for each other.
+     * <p>
+     * Each island breeds with its own generator, seeded from the AI's one. Migrations depend on how threads get
+     * scheduled though, so a seed does not fully reproduce a search.
+     * <p>
+     * Islands evolve on a pool of their own, shut down when the AI is closed.
+     */
+    public static class IslandGeneticAI extends GeneticAI {
 
-        private final EvaluationFunction evaluationFunction;
-        private final Spot startAt;
-        private final Random random;
-        private final ActionsType[] genes;
-        private double score;
+        private final int islands;
+        private final int migrationInterval;
+        private final int migrants;
+        private final PopulationEvaluator[] evaluators;
+        private final GenerationStats[] islandStats;
+        private final MigrationExchange exchange;
+        private final ForkJoinPool threads;
+        private final List<Callable<Integer>> tasks;
 
-        public Chromosome(
-                ActionsType[] genes,
-                EvaluationFunction evaluationFunction,
-                Spot startAt,
-                Random random) {
+        /**
+         * @param islands how many sub-populations evolve in parallel
+         * @param migrationInterval how many generations an island evolves between two migrations
+         * @param migrants how many chromosomes migrate at once
+         * @param islandSize the population of each island
+         * @param evaluators creates the evaluator of each island, plus one for the initial population
+         */
+        public IslandGeneticAI(
+                int islands,
+                int migrationInterval,
+                int migrants,
+                int geneLength,
+                int islandSize,
+                SearchBudget budget,
+                double crossoverRate,
+                double mutationRate,
+                SelectionStrategy selection,
+                RandomGenerator random,
+                Supplier<PopulationEvaluator> evaluators,
+                GeneEncoding encoding,
+                InputRepository repo,
+                EvaluationFunction evaluationFunction) {
 
-            this.genes = genes;
-            this.evaluationFunction = evaluationFunction;
-            this.startAt = startAt;
-            this.random = random;
-            this.score = 0.0;
+            super(true, geneLength, islands * islandSize, budget, crossoverRate, mutationRate, selection, random,
+                    evaluators.get(), true, encoding, repo, evaluationFunction);
+
+            if (migrationInterval < 1) {
+                throw new IllegalArgumentException("Migration interval must be positive, got " + migrationInterval);
+            }
+
+            this.islands = islands;
+            this.migrationInterval = migrationInterval;
+            this.migrants = migrants;
+            this.evaluators = new PopulationEvaluator[islands];
+            this.islandStats = new GenerationStats[islands];
+            for (int i = 0; i < islands; i++) {
+                this.evaluators[i] = evaluators.get();
+                this.islandStats[i] = new GenerationStats();
+            }
+            this.exchange = new MigrationExchange(islands);
+            this.threads = new ForkJoinPool(islands);
+            this.tasks = new ArrayList<>(islands);
         }
 
-        public void evaluate(TronSimulator gameEngine) {
-            this.score = evaluationFunction.evaluate(gameEngine, startAt, genes);
+        /**
+         * Splits the pool in islands and evolves them in parallel
+         *
+         * @return how many generations the slowest island has evolved
+         */
+        @Override
+        protected int evolve(List<Chromosome> pool) {
+            BattleFieldSnapshot snapshot = getRepository().getBattleField();
+            int islandSize = pool.size() / islands;
+
+            exchange.clear();
+            tasks.clear();
+
+            List<List<Chromosome>> islandPools = new ArrayList<>(islands);
+            for (int i = 0; i < islands; i++) {
+                int island = i;
+                RandomGenerator random = getRandom().split();
+
+                // chromosomes breed with their island's generator
+                List<Chromosome> islandPool = new ArrayList<>(islandSize);
+                int end = i == islands - 1 ? pool.size() : (i + 1) * islandSize;
+                for (Chromosome chromosome : pool.subList(i * islandSize, end)) {
+                    islandPool.add(chromosome.withRandom(random));
+                }
+                islandPools.add(islandPool);
+
+                islandStats[i].clear();
+                islandStats[i].record(islandPool);
+
+                evaluators[i].prepare(snapshot);
+                tasks.add(() -> evolveIsland(island, islandPool, random));
+            }
+
+            int generations = Integer.MAX_VALUE;
+            try {
+                for (Future<Integer> future : threads.invokeAll(tasks)) {
+                    generations = Math.min(generations, future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while evolving islands", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Failed to evolve islands", e.getCause());
+            }
+
+            pool.clear();
+            islandPools.forEach(pool::addAll);
+
+            return generations;
         }
 
-        public Chromosome[] crossOver(Chromosome another) {
+        @Override
+        public void close() {
+            super.close();
+            for (PopulationEvaluator evaluator : evaluators) {
+                evaluator.close();
+            }
+            threads.shutdown();
+        }
 
-            int pivot = random.nextInt(another.genes.length);
+        private int evolveIsland(int island, List<Chromosome> pool, RandomGenerator random) {
+            List<Chromosome> newPool = new ArrayList<>(pool.size());
 
-            ActionsType[] child1 = new ActionsType[another.genes.length];
-            ActionsType[] child2 = new ActionsType[genes.length];
+            int generation;
+            for (generation = 0; getBudget().hasNext(generation, islandStats[island]); generation++) {
+                nextGeneration(pool, newPool, random, evaluators[island]);
+                islandStats[island].record(pool);
 
-            System.arraycopy(genes, 0, child1, 0, pivot);
-            System.arraycopy(another.genes, pivot, child1, pivot, (another.genes.length - pivot));
+                if ((generation + 1) % migrationInterval == 0) {
+                    migrate(island, pool, random);
+                }
+            }
 
-            System.arraycopy(another.genes, 0, child2, 0, pivot);
-            System.arraycopy(genes, pivot, child2, pivot, (genes.length - pivot));
+            return generation;
+        }
 
-            return new Chromosome[] {
-                    new Chromosome(child1, evaluationFunction, startAt, random),
-                    new Chromosome(child2, evaluationFunction, startAt, random) };
+        /**
+         * @return the statistics of an island over the last search; {@link #getStats()} only covers the initial
+         *         population
+         */
+        public GenerationStats getIslandStats(int island) {
+            return islandStats[island];
         }
 
-        public Chromosome mutate() {
-            ActionsType[] mutate = new ActionsType[genes.length];
-            int pivot = random.nextInt(genes.length);
+        private void migrate(int island, List<Chromosome> pool, RandomGenerator random) {
+            pool.sort(Comparator.comparingDouble(Chromosome::getScore).reversed());
 
-            System.arraycopy(genes, 0, mutate, 0, pivot);
-            System.arraycopy(genes, pivot + 1, mutate, pivot + 1, (genes.length - pivot - 1));
-            mutate[pivot] = POSSIBLE_ACTIONS[random.nextInt(POSSIBLE_ACTIONS.length)];
+            // copies, so that no chromosome is ever shared between islands
+            Chromosome[] emigrants = new Chromosome[Math.min(migrants, pool.size())];
+            for (int i = 0; i < emigrants.length; i++) {
+                emigrants[i] = pool.get(i).withRandom(random);
+            }
+            exchange.post((island + 1) % islands, emigrants);
 
-            return new Chromosome(mutate, evaluationFunction, startAt, random);
+            Chromosome[] immigrants = exchange.take(island);
+            if (immigrants != null) {
+                for (int i = 0; i < immigrants.length && i < pool.size(); i++) {
+                    pool.set(pool.size() - 1 - i, immigrants[i].withRandom(random));
+                }
+            }
         }
 
-        public double getScore() {
-            return score;
+        @Override
+        public String toString() {
+            return "IslandGeneticAI{" +
+                    "islands=" + islands +
+                    ", migrationInterval=" + migrationInterval +
+                    ", migrants=" + migrants +
+                    "} " + super.toString();
+        }
+    }
+
+    /**
+     * One mailbox per island, holding the last batch of chromosomes posted to it. A batch that has not been taken
+     * before the next one is posted is dropped.
+     */
+    public static final class MigrationExchange {
+
+        private final AtomicReferenceArray<Chromosome[]> mailboxes;
+
+        public MigrationExchange(int islands) {
+            this.mailboxes = new AtomicReferenceArray<>(islands);
+        }
+
+        public void post(int island, Chromosome[] migrants) {
+            mailboxes.set(island, migrants);
+        }
+
+        /**
+         * @return the last batch posted to the island, or null if none has been posted since the last take
+         */
+        public Chromosome[] take(int island) {
+            return mailboxes.getAndSet(island, null);
+        }
+
+        public void clear() {
+            for (int i = 0; i < mailboxes.length(); i++) {
+                mailboxes.set(i, null);
+            }
+        }
+    }
+
+    /**
+     * Two player alpha-beta search over the {@link TronSimulator}. The player and its closest opponent move in turn,
+     * the player first, the same way the game engine applies movements one player after the other; a light cycle left
+     * without any free neighbour loses. Other opponents, if any, are considered as standing still.
+     * <p>
+     * The search deepens iteratively, one turn at a time, for as long as the budget allows; each completed depth is
+     * counted as a generation by the budget. A depth interrupted by the budget is thrown away, the best movement of
+     * the last completed depth is played, and is searched first by the next depth.
+     * <p>
+     * Results are kept in a {@link TranspositionTable}, keyed by the simulator's hash and the side to move. Positions
+     * reached through different move orders are only searched once, and the best movement found for a position is
+     * searched first when it is met again, deeper or on a later turn.
+     */
+    public static class AlphaBetaAI extends AI {
+
+        // scores beyond any leaf evaluation, lowered by the number of plies so that late losses beat early ones
+        private static final double WIN = 1_000_000.0;
+
+        // how many nodes are searched between two budget checks
+        private static final int BUDGET_CHECK_INTERVAL = 1024;
+
+        // scores beyond this one are wins or losses, which are stored relative to the position they are found from
+        private static final double DECIDED = WIN / 2;
+
+        // tells apart positions where the opponent is to move
+        private static final long OPPONENT_TO_MOVE = 0x9E3779B97F4A7C15L;
+
+        private static final int TRANSPOSITION_TABLE_CAPACITY = 1 << 16;
+
+        private static final ActionsType[] ACTIONS = ActionsType.values();
+
+        private final InputRepository repo;
+        private final SearchBudget budget;
+        private final LeafEvaluation leafEvaluation;
+        private final TranspositionTable table;
+
+        // state of the current search
+        private TronSimulator simulator;
+        private int player;
+        private int opponent;
+        private int completedDepth;
+        private long searchedNodes;
+        private boolean interrupted;
+
+        public AlphaBetaAI(InputRepository repository) {
+            this(repository, new GenerationsBudget(4), new VoronoiEvaluation());
+        }
+
+        /**
+         * @param budget how long each turn's search may run, in completed depths
+         * @param leafEvaluation scores the positions at the search horizon
+         */
+        public AlphaBetaAI(InputRepository repository, SearchBudget budget, LeafEvaluation leafEvaluation) {
+            this(repository, budget, leafEvaluation, new TranspositionTable(TRANSPOSITION_TABLE_CAPACITY));
+        }
+
+        /**
+         * @param budget how long each turn's search may run, in completed depths
+         * @param leafEvaluation scores the positions at the search horizon
+         * @param table where search results are kept from one depth and one turn to the next, it may be shared
+         */
+        public AlphaBetaAI(
+                InputRepository repository,
+                SearchBudget budget,
+                LeafEvaluation leafEvaluation,
+                TranspositionTable table) {
+
+            super(repository);
+            this.repo = repository;
+            this.budget = budget;
+            this.leafEvaluation = leafEvaluation;
+            this.table = table;
         }
 
         @Override
-        public int compareTo(Chromosome c) {
-            if (score < c.score) {
-                return -1;
-            } else if (score > c.score) {
-                return 1;
+        public void updateRepository() {
+            super.updateRepository();
+            budget.startTurn();
+        }
+
+        @Override
+        public Action[] play() {
+            BattleFieldSnapshot battleField = repo.getBattleField();
+            Spot startSpot = repo.getPlayerLightCycleStartSpot();
+
+            simulator = new TronSimulator(battleField);
+            player = simulator.playerIndex(startSpot);
+            opponent = closestOpponent(battleField, startSpot);
+            table.newSearch();
+            completedDepth = 0;
+            searchedNodes = 0;
+            interrupted = false;
+
+            ActionsType best = null;
+            double bestScore = Double.NEGATIVE_INFINITY;
+
+            // the game cannot last longer than it takes to fill the arena
+            int maxDepth = (battleField.getAvailableSpotsCount() + 1) / 2;
+
+            while (completedDepth < maxDepth && budget.hasNext(completedDepth)) {
+                ActionsType depthBest = null;
+                double depthBestScore = Double.NEGATIVE_INFINITY;
+
+                for (ActionsType action : rootOrder(best)) {
+                    int mark = simulator.mark();
+                    if (!simulator.perform(player, action)) {
+                        continue;
+                    }
+
+                    double score = -search(false, 2 * (completedDepth + 1) - 1, Double.NEGATIVE_INFINITY,
+                            -depthBestScore, 1);
+                    simulator.rewind(mark);
+
+                    if (interrupted) {
+                        break;
+                    }
+
+                    if (depthBest == null || score > depthBestScore) {
+                        depthBest = action;
+                        depthBestScore = score;
+                    }
+                }
+
+                if (interrupted || depthBest == null) {
+                    break;
+                }
+
+                best = depthBest;
+                bestScore = depthBestScore;
+                completedDepth++;
+
+                // deeper searches cannot change a decided game
+                if (Math.abs(bestScore) >= WIN - 2 * completedDepth) {
+                    break;
+                }
             }
 
-            return 0;
+            return new Action[] { new Action(best == null ? ActionsType.RIGHT : best) };
+        }
+
+        /**
+         * Negamax search: scores are from the point of view of the light cycle to move
+         *
+         * @param playerToMove whether the player moves, or its opponent
+         * @param depth how many plies remain until the horizon
+         * @param ply how many plies have been played since the root
+         */
+        private double search(boolean playerToMove, int depth, double alpha, double beta, int ply) {
+            if (++searchedNodes % BUDGET_CHECK_INTERVAL == 0 && !budget.hasNext(completedDepth)) {
+                interrupted = true;
+                return 0.0;
+            }
+
+            if (!playerToMove && opponent < 0) {
+                // alone on the arena, the player keeps the move
+                return -search(true, depth - 1, -beta, -alpha, ply + 1);
+            }
+
+            long key = playerToMove ? simulator.getHash() : simulator.getHash() ^ OPPONENT_TO_MOVE;
+            long entry = table.probe(key);
+            ActionsType hashMove = null;
+
+            if (entry != TranspositionTable.MISS) {
+                hashMove = TranspositionTable.moveOf(entry);
+
+                if (TranspositionTable.depthOf(entry) >= depth) {
+                    double score = fromTable(TranspositionTable.scoreOf(entry), ply);
+                    switch (TranspositionTable.boundOf(entry)) {
+                        case EXACT:
+                            return score;
+                        case LOWER:
+                            alpha = Math.max(alpha, score);
+                            break;
+                        case UPPER:
+                            beta = Math.min(beta, score);
+                            break;
+                    }
+
+                    if (alpha >= beta) {
+                        return score;
+                    }
+                }
+            }
+
+            if (depth == 0) {
+                double score = leafEvaluation.evaluate(simulator, player, opponent);
+                score = playerToMove ? score : -score;
+
+                table.store(key, 0, TranspositionTable.Bound.EXACT, score, null);
+                return score;
+            }
+
+            double originalAlpha = alpha;
+            int mover = playerToMove ? player : opponent;
+            ActionsType bestMove = null;
+            double best = Double.NEGATIVE_INFINITY;
+
+            for (int i = -1; i < ACTIONS.length; i++) {
+                // the best movement found by an earlier search goes first
+                ActionsType action = i < 0 ? hashMove : ACTIONS[i];
+                if (action == null || i >= 0 && action == hashMove) {
+                    continue;
+                }
+
+                int mark = simulator.mark();
+                if (!simulator.perform(mover, action)) {
+                    continue;
+                }
+
+                double score = -search(!playerToMove, depth - 1, -beta, -alpha, ply + 1);
+                simulator.rewind(mark);
+
+                if (interrupted) {
+                    return 0.0;
+                }
+
+                if (score > best) {
+                    best = score;
+                    bestMove = action;
+                    if (score > alpha) {
+                        alpha = score;
+                        if (alpha >= beta) {
+                            break;
+                        }
+                    }
+                }
+            }
+
+            // a light cycle that cannot move loses
+            if (bestMove == null) {
+                best = -(WIN - ply);
+            }
+
+            TranspositionTable.Bound bound = best <= originalAlpha ? TranspositionTable.Bound.UPPER :
+                    best >= beta ? TranspositionTable.Bound.LOWER : TranspositionTable.Bound.EXACT;
+            table.store(key, depth, bound, toTable(best, ply), bestMove);
+
+            return best;
+        }
+
+        /**
+         * Wins and losses are scored by how many plies away from the root they are: the table stores them by how many
+         * plies away from the stored position they are instead
+         */
+        private static double toTable(double score, int ply) {
+            return score > DECIDED ? score + ply : score < -DECIDED ? score - ply : score;
+        }
+
+        private static double fromTable(double score, int ply) {
+            return score > DECIDED ? score - ply : score < -DECIDED ? score + ply : score;
+        }
+
+        private static List<ActionsType> rootOrder(ActionsType first) {
+            List<ActionsType> order = new ArrayList<>(ACTIONS.length);
+            if (first != null) {
+                order.add(first);
+            }
+            for (ActionsType action : ACTIONS) {
+                if (action != first) {
+                    order.add(action);
+                }
+            }
+            return order;
+        }
+
+        /**
+         * @return the simulator index of the live opponent closest to the player, -1 if there is none
+         */
+        private int closestOpponent(BattleFieldSnapshot battleField, Spot startSpot) {
+            Spot currentSpot = battleField.getCurrentSpot(startSpot);
+
+            int closest = -1;
+            double closestDistance = Double.MAX_VALUE;
+            for (Spot opponentStartSpot : battleField.getStartSpots()) {
+                if (opponentStartSpot.equals(startSpot)) {
+                    continue;
+                }
+
+                double distance = currentSpot.squareDistTo(battleField.getCurrentSpot(opponentStartSpot));
+                if (distance < closestDistance) {
+                    closest = simulator.playerIndex(opponentStartSpot);
+                    closestDistance = distance;
+                }
+            }
+
+            return closest;
+        }
+
+        /**
+         * @return how many turns the last search has completely looked ahead
+         */
+        public int getCompletedDepth() {
+            return completedDepth;
+        }
+
+        /**
+         * @return how many positions the last search has visited
+         */
+        public long getSearchedNodes() {
+            return searchedNodes;
+        }
+
+        public TranspositionTable getTranspositionTable() {
+            return table;
+        }
+
+        /**
+         * Scores a position by the difference between the areas left to the player and to its opponent, the way
+         * {@link FloodFillAI} scores its plans. Light cycles sharing a region get the same area, so this only tells
+         * positions apart once they are separated.
+         */
+        static double areaDifference(TronSimulator engine, int player, int opponent) {
+            int playerArea = engine.floodFillArea(engine.getCurrentCell(player));
+            int opponentArea = opponent < 0 ? 0 : engine.floodFillArea(engine.getCurrentCell(opponent));
+
+            return (double) (playerArea - opponentArea) / (engine.getAvailableSpotsCount() + 1);
         }
 
         @Override
         public String toString() {
-            return "Chromosome{" + "startAt=" + startAt +
-                    ", genes=" + Arrays.toString(genes) +
-                    ", score=" + score +
-                    '}';
+            return "AlphaBetaAI{" +
+                    "budget=" + budget +
+                    ", leafEvaluation=" + leafEvaluation +
+                    ", transpositionTable=" + table.capacity() +
+                    "} ";
         }
     }
 
-    static class InputRepository extends Repository {
+    /**
+     * Scores a position by the free spots each light cycle reaches first: the area of {@link FloodFillAI}, split
+     * between light cycles sharing a region. Spots both reach at the same time belong to neither. Once light cycles
+     * are separated, this is the difference of their areas.
+     * <p>
+     * Distances are computed by breadth first searches over preallocated memory. Instances are not thread safe.
+     */
+    public static final class VoronoiEvaluation implements LeafEvaluation {
 
-        private int N;
-        private int P;
+        private static final int UNREACHED = Integer.MAX_VALUE;
 
-        private final BattleField battleField;
-        private final Set<Spot> opponenetsStartSpots;
-        private Spot playerStartSpot;
+        private static final ActionsType[] ACTIONS = ActionsType.values();
 
-        protected InputRepository(IntSupplier inputSupplier) {
-            super(inputSupplier);
-            this.battleField = new BattleField();
-            opponenetsStartSpots = new HashSet<>();
+        // scratch memory, sized for the grid on first use
+        private int[] playerDistances;
+        private int[] opponentDistances;
+        private int[] queue;
+
+        public VoronoiEvaluation() {
+            this.playerDistances = new int[0];
+            this.opponentDistances = new int[0];
+            this.queue = new int[0];
         }
 
         @Override
-        public void update() {
-            N = readInput(); // total number of players (2 to 4).
-            P = readInput(); // your player number (0 to 3).
+        public double evaluate(TronSimulator engine, int player, int opponent) {
+            GridSize gridSize = engine.getGridSize();
+            int cells = gridSize.getCellsCount();
+            if (queue.length != cells) {
+                playerDistances = new int[cells];
+                opponentDistances = new int[cells];
+                queue = new int[cells];
+            }
 
-            Set<Spot> lightCyclesAlive = new HashSet<>(N);
+            distancesFrom(engine, engine.getCurrentCell(player), playerDistances);
+            if (opponent >= 0) {
+                distancesFrom(engine, engine.getCurrentCell(opponent), opponentDistances);
+            } else {
+                Arrays.fill(opponentDistances, UNREACHED);
+            }
 
-            for (int i = 0; i < N; i++) {
+            int territory = 0;
+            for (int cell = 0; cell < cells; cell++) {
+                if (playerDistances[cell] < opponentDistances[cell]) {
+                    territory++;
+                } else if (opponentDistances[cell] < playerDistances[cell]) {
+                    territory--;
+                }
+            }
 
-                int X0 = readInput(); // starting X coordinate of lightcycle (or -1)
-                int Y0 = readInput(); // starting Y coordinate of lightcycle (or -1)
+            return (double) territory / (engine.getAvailableSpotsCount() + 1);
+        }
 
-                int X1 = readInput(); // starting X coordinate of lightcycle (can be the same as X0 if you
-                // play before this player)
-                int Y1 = readInput(); // starting Y coordinate of lightcycle (can be the same as Y0 if you
-                // play before this player)
+        private void distancesFrom(TronSimulator engine, int start, int[] distances) {
+            GridSize gridSize = engine.getGridSize();
+            Arrays.fill(distances, UNREACHED);
+
+            // the light cycle's head is occupied, and is not part of its territory
+            int head = 0;
+            int tail = 0;
+            distances[start] = 0;
+            queue[tail++] = start;
+
+            while (head < tail) {
+                int cell = queue[head++];
+
+                for (ActionsType action : ACTIONS) {
+                    int next = gridSize.neighbour(cell, action);
+
+                    if (next >= 0 && distances[next] == UNREACHED && !engine.hasBeenVisited(next)) {
+                        distances[next] = distances[cell] + 1;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+
+            distances[start] = UNREACHED;
+        }
+
+        @Override
+        public String toString() {
+            return "VoronoiEvaluation{}";
+        }
+    }
+
+    /**
+     * Fixed size, open addressed table of search results keyed by position hashes (see
+     * {@link TronSimulator#getHash()}). Each entry holds the depth a position has been searched at, the score found,
+     * whether that score is exact or a bound, and the best movement. Entries are packed into primitive arrays: two
+     * longs per entry, no allocation.
+     * <p>
+     * Keys map to a bucket of two entries. The first one keeps the deepest search, the second one always takes the
+     * newest result. Entries also record the search that stored them (see {@link #newSearch()}): the first entry of
+     * a bucket keeps the deepest result of the current search only, so deep entries of earlier turns, which the game
+     * has moved past, give way to the current search instead of locking the bucket forever. They are still probed
+     * until then.
+     * <p>
+     * Threads may share a table without any lock. Writes are racy, but each entry stores its key xor-ed with its data:
+     * an entry torn by concurrent writes no longer matches its key, and reads as a miss. Distinct positions sharing a
+     * 64 bit hash are not told apart.
+     */
+    public static final class TranspositionTable {
+
+        /**
+         * Returned by {@link #probe(long)} on misses; entries are never equal to it
+         */
+        public static final long MISS = 0L;
+
+        /**
+         * How a stored score relates to the exact score of its position
+         */
+        public enum Bound {
+            EXACT, LOWER, UPPER
+        }
+
+        private static final Bound[] BOUNDS = Bound.values();
+        private static final ActionsType[] MOVES = ActionsType.values();
+
+        private static final int DEPTH_SHIFT = 32;
+        private static final long DEPTH_MASK = 0xFFFFL;
+        private static final int BOUND_SHIFT = 48;
+        private static final long BOUND_MASK = 0x3L;
+        private static final int MOVE_SHIFT = 50;
+        private static final long MOVE_MASK = 0x7L;
+        private static final int GENERATION_SHIFT = 53;
+        private static final long GENERATION_MASK = 0xFFL;
+        private static final long PRESENT = 1L << 63;
+
+        private final long[] checks;
+        private final long[] entries;
+        private final int bucketMask;
+
+        // the search entries are stored by, wrapping around: only telling it from the previous ones matters
+        private long generation;
+
+        /**
+         * @param capacity how many entries the table holds at least, rounded up to a power of two
+         */
+        public TranspositionTable(int capacity) {
+            if (capacity < 2 || capacity > 1 << 30) {
+                throw new IllegalArgumentException("Unsupported capacity " + capacity);
+            }
+
+            int size = Integer.highestOneBit(capacity - 1) << 1;
+            this.checks = new long[size];
+            this.entries = new long[size];
+            this.bucketMask = (size >>> 1) - 1;
+        }
+
+        /**
+         * @return the entry stored for the given key, {@link #MISS} if there is none
+         */
+        public long probe(long key) {
+            int slot = bucketOf(key);
+
+            long entry = entries[slot];
+            if (entry != MISS && (checks[slot] ^ entry) == key) {
+                return entry;
+            }
+
+            entry = entries[slot + 1];
+            if (entry != MISS && (checks[slot + 1] ^ entry) == key) {
+                return entry;
+            }
+
+            return MISS;
+        }
+
+        /**
+         * Starts a new search, whose entries take precedence over the ones of the previous searches. It must not be
+         * called while threads store entries.
+         */
+        public void newSearch() {
+            generation = generation + 1 & GENERATION_MASK;
+        }
+
+        /**
+         * @param depth how deep the position has been searched, at most 65535
+         * @param bestMove the best movement found, null if there is none
+         */
+        public void store(long key, int depth, Bound bound, double score, ActionsType bestMove) {
+            long entry = PRESENT |
+                    generation << GENERATION_SHIFT |
+                    (long) (bestMove == null ? 0 : bestMove.ordinal() + 1) << MOVE_SHIFT |
+                    (long) bound.ordinal() << BOUND_SHIFT |
+                    (Math.min(depth, (int) DEPTH_MASK) & DEPTH_MASK) << DEPTH_SHIFT |
+                    Float.floatToIntBits((float) score) & 0xFFFFFFFFL;
+
+            int slot = bucketOf(key);
+
+            // the deepest result of the current search is kept, even for the same position: its best move still
+            // orders the next iteration, while the shallower result goes to the second entry
+            long deepest = entries[slot];
+            if (deepest == MISS || generationOf(deepest) != generation || depthOf(deepest) <= depth) {
+                write(slot, key, entry);
+            } else {
+                write(slot + 1, key, entry);
+            }
+        }
+
+        private void write(int slot, long key, long entry) {
+            entries[slot] = entry;
+            checks[slot] = key ^ entry;
+        }
+
+        private int bucketOf(long key) {
+            return ((int) key & bucketMask) << 1;
+        }
+
+        public void clear() {
+            Arrays.fill(entries, MISS);
+            Arrays.fill(checks, 0L);
+        }
+
+        /**
+         * @return how many entries the table holds
+         */
+        public int capacity() {
+            return entries.length;
+        }
+
+        public static int depthOf(long entry) {
+            return (int) (entry >>> DEPTH_SHIFT & DEPTH_MASK);
+        }
+
+        private static long generationOf(long entry) {
+            return entry >>> GENERATION_SHIFT & GENERATION_MASK;
+        }
+
+        public static Bound boundOf(long entry) {
+            return BOUNDS[(int) (entry >>> BOUND_SHIFT & BOUND_MASK)];
+        }
+
+        public static double scoreOf(long entry) {
+            return Float.intBitsToFloat((int) entry);
+        }
+
+        /**
+         * @return the best movement of the entry, null if there is none
+         */
+        public static ActionsType moveOf(long entry) {
+            int move = (int) (entry >>> MOVE_SHIFT & MOVE_MASK);
+            return move == 0 ? null : MOVES[move - 1];
+        }
+    }
+
+    /**
+     * Monte Carlo tree search with the UCT selection rule. As for the {@link AlphaBetaAI}, the player and its closest
+     * opponent move in turn, the player first, other opponents standing still. Each playout selects a path down the
+     * tree, expands the last node of the path once it has been visited, then plays random movements to the end of the
+     * game on the {@link TronSimulator}: the first light cycle left without a free neighbour loses.
+     * <p>
+     * Nodes are not objects but indexes in preallocated primitive arrays, the children of a node being allocated
+     * together. Once the arena is full, the tree stops growing and playouts start from its leaves. After a turn, the
+     * subtree under the movements actually played is copied into a second arena, which becomes the tree of the next
+     * turn, so that the playouts it holds are not lost.
+     * <p>
+     * Several threads may share the tree, each with its own simulator and generator. Counters are only updated with
+     * atomic operations: a playout counts its visit on the way down, a virtual loss that steers other threads to other
+     * paths until the result is known, and adds its win on the way back up. A node is expanded by the single thread
+     * that claims it; others playout from it in the meantime. A single thread runs on the calling one, so that a
+     * seeded generator reproduces its search. Other threads run on a pool shut down when the AI is closed.
+     * <p>
+     * Each playout is counted as a generation by the budget.
+     */
+    public static class MctsAI extends AI {
+
+        static final int ARENA_CAPACITY = 1 << 17;
+
+        private static final double EXPLORATION = Math.sqrt(2);
+
+        private static final int UNEXPANDED = -1;
+        private static final int EXPANDING = -2;
+        private static final int NONE = -1;
+
+        private static final ActionsType[] ACTIONS = ActionsType.values();
+
+        private final InputRepository repo;
+        private final SearchBudget budget;
+        private final RandomGenerator random;
+        private final int threads;
+        private final ForkJoinPool pool;
+        private final List<Callable<Void>> tasks;
+
+        // the node arena, nodes of the current tree are indexes below treeSize. The plain arrays are written before
+        // the node is published by setting its first child
+        private int[] parents;
+        private AtomicIntegerArray firstChildren;
+        private int[] childCounts;
+        private int[] moves;
+        private AtomicIntegerArray visits;
+        private AtomicIntegerArray wins;
+        private final AtomicInteger treeSize;
+
+        // the spare arena the tree is compacted into between turns
+        private int[] spareParents;
+        private AtomicIntegerArray spareFirstChildren;
+        private int[] spareChildCounts;
+        private int[] spareMoves;
+        private AtomicIntegerArray spareVisits;
+        private AtomicIntegerArray spareWins;
+        private final int[] origins;
+
+        // state of the current search, by worker thread
+        private final TronSimulator[] simulators;
+        private final RandomGenerator[] randoms;
+        private final int[][] freeMoves;
+        private final AtomicLong claimedPlayouts;
+        private GridSize gridSize;
+        private int player;
+        private int opponent;
+
+        // what has been played on the last turn, for the tree to be reused
+        private ActionsType lastMove;
+        private Spot lastPlayerSpot;
+        private Spot lastOpponentStartSpot;
+        private Spot lastOpponentSpot;
+
+        private long playouts;
+        private long searchNanos;
+        private int reusedNodes;
+
+        public MctsAI(InputRepository repository) {
+            this(repository, new TimeBudget(FIRST_TURN_MILLIS, TURN_MILLIS), new SplitMixRandom());
+        }
+
+        /**
+         * @param budget how long each turn's search may run, in playouts
+         * @param random drives the playouts
+         */
+        public MctsAI(InputRepository repository, SearchBudget budget, RandomGenerator random) {
+            this(repository, budget, random, ARENA_CAPACITY);
+        }
+
+        /**
+         * @param capacity how many nodes the tree may hold
+         */
+        public MctsAI(InputRepository repository, SearchBudget budget, RandomGenerator random, int capacity) {
+            this(repository, budget, random, capacity, 1);
+        }
+
+        /**
+         * @param capacity how many nodes the tree may hold
+         * @param threads how many threads share the tree
+         */
+        public MctsAI(
+                InputRepository repository,
+                SearchBudget budget,
+                RandomGenerator random,
+                int capacity,
+                int threads) {
+
+            super(repository);
+            if (threads < 1) {
+                throw new IllegalArgumentException("At least one thread is needed, got " + threads);
+            }
+
+            this.repo = repository;
+            this.budget = budget;
+            this.random = random;
+            this.threads = threads;
+            this.pool = threads > 1 ? new ForkJoinPool(threads) : null;
+            this.tasks = new ArrayList<>(threads);
+
+            this.parents = new int[capacity];
+            this.firstChildren = new AtomicIntegerArray(capacity);
+            this.childCounts = new int[capacity];
+            this.moves = new int[capacity];
+            this.visits = new AtomicIntegerArray(capacity);
+            this.wins = new AtomicIntegerArray(capacity);
+            this.treeSize = new AtomicInteger();
+
+            this.spareParents = new int[capacity];
+            this.spareFirstChildren = new AtomicIntegerArray(capacity);
+            this.spareChildCounts = new int[capacity];
+            this.spareMoves = new int[capacity];
+            this.spareVisits = new AtomicIntegerArray(capacity);
+            this.spareWins = new AtomicIntegerArray(capacity);
+            this.origins = new int[capacity];
+
+            this.simulators = new TronSimulator[threads];
+            this.randoms = new RandomGenerator[threads];
+            this.freeMoves = new int[threads][ACTIONS.length];
+            this.claimedPlayouts = new AtomicLong();
+
+            // the calling thread's generator drives the first worker, others get their own
+            this.randoms[0] = random;
+            for (int worker = 1; worker < threads; worker++) {
+                this.randoms[worker] = random.split();
+            }
+        }
+
+        @Override
+        public void updateRepository() {
+            super.updateRepository();
+            budget.startTurn();
+        }
+
+        @Override
+        public Action[] play() {
+            BattleFieldSnapshot battleField = repo.getBattleField();
+            Spot startSpot = repo.getPlayerLightCycleStartSpot();
+
+            for (int worker = 0; worker < threads; worker++) {
+                simulators[worker] = new TronSimulator(battleField);
+            }
+            gridSize = battleField.getGridSize();
+            player = simulators[0].playerIndex(startSpot);
+
+            Spot opponentStartSpot = closestOpponent(battleField, startSpot);
+            opponent = opponentStartSpot == null ? NONE : simulators[0].playerIndex(opponentStartSpot);
+
+            reuseOrResetTree(battleField, startSpot, opponentStartSpot);
+
+            long start = System.nanoTime();
+            claimedPlayouts.set(0);
+            playouts = 0;
+            if (opponent != NONE) {
+                search();
+            }
+            searchNanos = System.nanoTime() - start;
+
+            ActionsType move = opponent == NONE ? largestAreaMove() : mostVisitedMove();
+
+            lastMove = move;
+            lastPlayerSpot = battleField.getCurrentSpot(startSpot);
+            lastOpponentStartSpot = opponentStartSpot;
+            lastOpponentSpot = opponentStartSpot == null ? null : battleField.getCurrentSpot(opponentStartSpot);
+
+            return new Action[] { new Action(move == null ? ActionsType.RIGHT : move) };
+        }
+
+        private void search() {
+            if (threads == 1) {
+                searchOn(0);
+                return;
+            }
+
+            tasks.clear();
+            for (int worker = 0; worker < threads; worker++) {
+                int index = worker;
+                tasks.add(() -> {
+                    searchOn(index);
+                    return null;
+                });
+            }
+
+            try {
+                for (Future<Void> future : pool.invokeAll(tasks)) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while searching", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Failed to search", e.getCause());
+            }
+        }
+
+        private void searchOn(int worker) {
+            long done = 0;
+
+            // playouts are claimed before being run, so that workers never run more than budgeted together
+            while (budget.hasNext((int) Math.min(claimedPlayouts.getAndIncrement(), Integer.MAX_VALUE))) {
+                playout(worker);
+                done++;
+            }
+
+            synchronized (this) {
+                playouts += done;
+            }
+        }
+
+        private void playout(int worker) {
+            TronSimulator simulator = simulators[worker];
+            int mark = simulator.mark();
+
+            // selection, visits are counted on the way down
+            int node = 0;
+            boolean playerToMove = true;
+            visits.incrementAndGet(node);
+
+            int first;
+            while ((first = firstChildren.get(node)) >= 0 && childCounts[node] > 0) {
+                node = selectChild(node, first);
+                visits.incrementAndGet(node);
+                simulator.perform(playerToMove ? player : opponent, ACTIONS[moves[node]]);
+                playerToMove = !playerToMove;
+            }
+
+            // expansion, of nodes already visited before this playout
+            if (first == UNEXPANDED && (visits.get(node) > 1 || node == 0)
+                    && expand(worker, node, playerToMove) && childCounts[node] > 0) {
+
+                node = firstChildren.get(node) + randoms[worker].nextInt(childCounts[node]);
+                visits.incrementAndGet(node);
+                simulator.perform(playerToMove ? player : opponent, ACTIONS[moves[node]]);
+                playerToMove = !playerToMove;
+            }
+
+            // simulation, a node without children is a lost game for the light cycle to move
+            boolean playerWins = firstChildren.get(node) >= 0 && childCounts[node] == 0 ?
+                    !playerToMove :
+                    simulate(worker, playerToMove);
+
+            simulator.rewind(mark);
+
+            // back propagation, each node is scored for the light cycle that moved into it
+            while (node != NONE) {
+                if (playerToMove != playerWins) {
+                    wins.incrementAndGet(node);
+                }
+                node = parents[node];
+                playerToMove = !playerToMove;
+            }
+        }
+
+        private int selectChild(int node, int first) {
+            int last = first + childCounts[node];
+            double logVisits = Math.log(visits.get(node));
+
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < last; child++) {
+                int childVisits = visits.get(child);
+                if (childVisits == 0) {
+                    return child;
+                }
+
+                double value = (double) wins.get(child) / childVisits +
+                        EXPLORATION * Math.sqrt(logVisits / childVisits);
+                if (value > bestValue) {
+                    best = child;
+                    bestValue = value;
+                }
+            }
+
+            return best;
+        }
+
+        /**
+         * Allocates a child per free neighbour of the light cycle to move
+         *
+         * @return false if the arena is full, or if another thread is expanding the node
+         */
+        private boolean expand(int worker, int node, boolean playerToMove) {
+            if (!firstChildren.compareAndSet(node, UNEXPANDED, EXPANDING)) {
+                return false;
+            }
+
+            TronSimulator simulator = simulators[worker];
+            int cell = simulator.getCurrentCell(playerToMove ? player : opponent);
+
+            int[] children = freeMoves[worker];
+            int count = 0;
+            for (ActionsType action : ACTIONS) {
+                int next = gridSize.neighbour(cell, action);
+                if (next >= 0 && !simulator.hasBeenVisited(next)) {
+                    children[count++] = action.ordinal();
+                }
+            }
+
+            int first;
+            do {
+                first = treeSize.get();
+                if (first + count > parents.length) {
+                    firstChildren.set(node, UNEXPANDED);
+                    return false;
+                }
+            } while (!treeSize.compareAndSet(first, first + count));
+
+            for (int i = 0; i < count; i++) {
+                initialize(first + i, node, children[i]);
+            }
+            childCounts[node] = count;
+
+            // publishes the children
+            firstChildren.set(node, first);
+            return true;
+        }
+
+        private void initialize(int node, int parent, int move) {
+            parents[node] = parent;
+            childCounts[node] = 0;
+            moves[node] = move;
+            visits.set(node, 0);
+            wins.set(node, 0);
+            firstChildren.set(node, UNEXPANDED);
+        }
+
+        /**
+         * Plays random movements until a light cycle is stuck
+         *
+         * @return true if the player wins
+         */
+        private boolean simulate(int worker, boolean playerToMove) {
+            TronSimulator simulator = simulators[worker];
+            RandomGenerator random = randoms[worker];
+            int[] freeMoves = this.freeMoves[worker];
+
+            while (true) {
+                int mover = playerToMove ? player : opponent;
+                int cell = simulator.getCurrentCell(mover);
+
+                int count = 0;
+                for (ActionsType action : ACTIONS) {
+                    int next = gridSize.neighbour(cell, action);
+                    if (next >= 0 && !simulator.hasBeenVisited(next)) {
+                        freeMoves[count++] = action.ordinal();
+                    }
+                }
+
+                if (count == 0) {
+                    return !playerToMove;
+                }
+
+                simulator.perform(mover, ACTIONS[freeMoves[random.nextInt(count)]]);
+                playerToMove = !playerToMove;
+            }
+        }
+
+        private ActionsType mostVisitedMove() {
+            int first = firstChildren.get(0);
+            if (first < 0) {
+                return null;
+            }
+
+            int best = NONE;
+            for (int child = first; child < first + childCounts[0]; child++) {
+                if (best == NONE || visits.get(child) > visits.get(best)) {
+                    best = child;
+                }
+            }
+
+            return best == NONE ? null : ACTIONS[moves[best]];
+        }
+
+        /**
+         * Alone on the arena, there is nothing to search: the player heads for the largest area
+         */
+        private ActionsType largestAreaMove() {
+            TronSimulator simulator = simulators[0];
+            int cell = simulator.getCurrentCell(player);
+
+            ActionsType best = null;
+            int bestArea = -1;
+            for (ActionsType action : ACTIONS) {
+                int next = gridSize.neighbour(cell, action);
+                if (next >= 0 && !simulator.hasBeenVisited(next)) {
+                    int area = simulator.floodFillArea(next);
+                    if (area > bestArea) {
+                        best = action;
+                        bestArea = area;
+                    }
+                }
+            }
+
+            return best;
+        }
+
+        /**
+         * Keeps the subtree under the movements played since the last turn if they can be told, starts over from a
+         * single root otherwise
+         */
+        private void reuseOrResetTree(BattleFieldSnapshot battleField, Spot startSpot, Spot opponentStartSpot) {
+            int root = NONE;
+
+            if (lastMove != null && opponentStartSpot != null && opponentStartSpot.equals(lastOpponentStartSpot)) {
+                Spot playerSpot = battleField.getCurrentSpot(startSpot);
+                Spot opponentSpot = battleField.getCurrentSpot(opponentStartSpot);
+
+                if (lastPlayerSpot.next(lastMove).equals(playerSpot) && lastOpponentSpot.isNeighborOf(opponentSpot)) {
+                    int child = childWithMove(0, lastMove);
+                    root = child == NONE ? NONE : childWithMove(child, lastOpponentSpot.directionTo(opponentSpot));
+                }
+            }
+
+            if (root == NONE) {
+                treeSize.set(1);
+                initialize(0, NONE, 0);
+                reusedNodes = 0;
+            } else {
+                compact(root);
+                reusedNodes = treeSize.get();
+            }
+        }
+
+        private int childWithMove(int node, ActionsType move) {
+            int first = firstChildren.get(node);
+            if (first < 0) {
+                return NONE;
+            }
+
+            for (int child = first; child < first + childCounts[node]; child++) {
+                if (moves[child] == move.ordinal()) {
+                    return child;
+                }
+            }
+
+            return NONE;
+        }
+
+        /**
+         * Copies the subtree of the given node into the spare arena, breadth first, then swaps both arenas
+         */
+        private void compact(int root) {
+            spareParents[0] = NONE;
+            spareMoves[0] = 0;
+            spareVisits.set(0, visits.get(root));
+            spareWins.set(0, wins.get(root));
+            origins[0] = root;
+
+            int size = 1;
+            for (int node = 0; node < size; node++) {
+                int origin = origins[node];
+                int first = firstChildren.get(origin);
+
+                if (first < 0) {
+                    spareFirstChildren.set(node, UNEXPANDED);
+                    spareChildCounts[node] = 0;
+                    continue;
+                }
+
+                spareFirstChildren.set(node, size);
+                spareChildCounts[node] = childCounts[origin];
+                for (int i = 0; i < childCounts[origin]; i++) {
+                    int child = first + i;
+                    spareParents[size] = node;
+                    spareMoves[size] = moves[child];
+                    spareVisits.set(size, visits.get(child));
+                    spareWins.set(size, wins.get(child));
+                    origins[size] = child;
+                    size++;
+                }
+            }
+
+            int[] ints = parents;
+            parents = spareParents;
+            spareParents = ints;
+
+            ints = childCounts;
+            childCounts = spareChildCounts;
+            spareChildCounts = ints;
+
+            ints = moves;
+            moves = spareMoves;
+            spareMoves = ints;
+
+            AtomicIntegerArray atomics = firstChildren;
+            firstChildren = spareFirstChildren;
+            spareFirstChildren = atomics;
+
+            atomics = visits;
+            visits = spareVisits;
+            spareVisits = atomics;
+
+            atomics = wins;
+            wins = spareWins;
+            spareWins = atomics;
+
+            treeSize.set(size);
+        }
+
+        /**
+         * @return the start spot of the live opponent closest to the player, null if there is none
+         */
+        private static Spot closestOpponent(BattleFieldSnapshot battleField, Spot startSpot) {
+            Spot currentSpot = battleField.getCurrentSpot(startSpot);
+
+            Spot closest = null;
+            double closestDistance = Double.MAX_VALUE;
+            for (Spot opponentStartSpot : battleField.getStartSpots()) {
+                if (opponentStartSpot.equals(startSpot)) {
+                    continue;
+                }
+
+                double distance = currentSpot.squareDistTo(battleField.getCurrentSpot(opponentStartSpot));
+                if (distance < closestDistance) {
+                    closest = opponentStartSpot;
+                    closestDistance = distance;
+                }
+            }
+
+            return closest;
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+
+        /**
+         * @return how many playouts the last search has run
+         */
+        public long getPlayouts() {
+            return playouts;
+        }
+
+        /**
+         * @return the playout rate of the last search, the figure to compare with other searches at equal budget
+         */
+        public double getPlayoutsPerSecond() {
+            return searchNanos == 0 ? 0.0 : playouts * (double) TimeUnit.SECONDS.toNanos(1) / searchNanos;
+        }
+
+        /**
+         * @return how many nodes the tree holds
+         */
+        public int getTreeSize() {
+            return treeSize.get();
+        }
+
+        /**
+         * @return how many nodes of the last search have been kept from the turn before
+         */
+        public int getReusedNodes() {
+            return reusedNodes;
+        }
+
+        /**
+         * @return how many playouts went through the root of the tree, inherited ones included
+         */
+        public int getRootVisits() {
+            return visits.get(0);
+        }
+
+        @Override
+        public String toString() {
+            return "MctsAI{" +
+                    "budget=" + budget +
+                    ", capacity=" + parents.length +
+                    ", threads=" + threads +
+                    "} ";
+        }
+    }
+
+    /**
+     * Picks the parents of a genetic search's next generation
+     */
+    public interface SelectionStrategy {
+
+        /**
+         * Called once per generation. Selectors are confined to the thread that asked for them, so a strategy can be
+         * shared between threads.
+         *
+         * @param population the evaluated population parents are picked from, which must not change while the
+         *         selector is used
+         */
+        Selector over(List<Chromosome> population);
+    }
+
+    public interface Selector {
+        Chromosome select(RandomGenerator random);
+    }
+
+    /**
+     * Picks the best of a few chromosomes drawn uniformly
+     */
+    public static final class TournamentSelection implements SelectionStrategy {
+
+        private final int size;
+
+        public TournamentSelection(int size) {
+            if (size < 1) {
+                throw new IllegalArgumentException("Tournament size must be positive, got " + size);
+            }
+
+            this.size = size;
+        }
+
+        @Override
+        public Selector over(List<Chromosome> population) {
+            return random -> {
+                Chromosome best = population.get(random.nextInt(population.size()));
+                for (int j = 1; j < size; j++) {
+                    Chromosome candidate = population.get(random.nextInt(population.size()));
+                    if (candidate.getScore() > best.getScore()) {
+                        best = candidate;
+                    }
+                }
+
+                return best;
+            };
+        }
+
+        @Override
+        public String toString() {
+            return "TournamentSelection{" + size + "}";
+        }
+    }
+
+    /**
+     * Fitness proportional selection: each chromosome is picked with a probability proportional to its score. The
+     * running sums of scores are computed once per generation, then each pick is a binary search over them, so
+     * selecting a whole generation takes O(n log n). Negative scores count as 0, and a population without any positive
+     * score is picked from uniformly.
+     */
+    public static final class RouletteSelection implements SelectionStrategy {
+
+        @Override
+        public Selector over(List<Chromosome> population) {
+            int size = population.size();
+
+            double[] cumulative = new double[size];
+            double total = 0.0;
+            for (int i = 0; i < size; i++) {
+                total += Math.max(0.0, population.get(i).getScore());
+                cumulative[i] = total;
+            }
+
+            if (total <= 0.0) {
+                return random -> population.get(random.nextInt(size));
+            }
+
+            double sum = total;
+            return random -> {
+                double value = random.nextDouble() * sum;
+
+                // the first chromosome whose running sum is above the value
+                int low = 0;
+                int high = size - 1;
+                while (low < high) {
+                    int middle = (low + high) >>> 1;
+                    if (cumulative[middle] > value) {
+                        high = middle;
+                    } else {
+                        low = middle + 1;
+                    }
+                }
+
+                return population.get(low);
+            };
+        }
+
+        @Override
+        public String toString() {
+            return "RouletteSelection{}";
+        }
+    }
+
+    /**
+     * Source of randomness of the searches. Implementations are not thread safe: each thread works with its own
+     * generator, obtained by {@link #split()}.
+     */
+    public interface RandomGenerator {
+
+        /**
+         * @return a uniformly distributed value between 0 (inclusive) and the bound (exclusive)
+         */
+        int nextInt(int bound);
+
+        long nextLong();
+
+        /**
+         * @return a uniformly distributed value between 0 (inclusive) and 1 (exclusive)
+         */
+        float nextFloat();
+
+        /**
+         * @return a uniformly distributed value between 0 (inclusive) and 1 (exclusive)
+         */
+        double nextDouble();
+
+        boolean nextBoolean();
+
+        /**
+         * @return a new generator, statistically independent from this one, which is advanced once
+         */
+        RandomGenerator split();
+    }
+
+    /**
+     * SplitMix64: a 64 bit counter stepped by the golden gamma and run through a finalizer, the generator behind
+     * {@link java.util.SplittableRandom}. The same seed always produces the same sequence.
+     */
+    public static final class SplitMixRandom implements RandomGenerator {
+
+        private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+        // tells apart generators created at the same time without a seed
+        private static final AtomicLong SEEDER = new AtomicLong(System.nanoTime());
+
+        private long state;
+
+        public SplitMixRandom() {
+            this(mix(SEEDER.getAndAdd(GOLDEN_GAMMA) ^ System.nanoTime()));
+        }
+
+        public SplitMixRandom(long seed) {
+            this.state = seed;
+        }
+
+        @Override
+        public int nextInt(int bound) {
+            if (bound <= 0) {
+                throw new IllegalArgumentException("Bound must be positive, got " + bound);
+            }
+
+            // Lemire's multiply-shift, retrying on the few values that would bias the result
+            long product = (nextLong() >>> 32) * bound;
+            if ((product & 0xFFFFFFFFL) < bound) {
+                long threshold = (1L << 32) % bound;
+                while ((product & 0xFFFFFFFFL) < threshold) {
+                    product = (nextLong() >>> 32) * bound;
+                }
+            }
+
+            return (int) (product >>> 32);
+        }
+
+        @Override
+        public long nextLong() {
+            return mix(state += GOLDEN_GAMMA);
+        }
+
+        @Override
+        public float nextFloat() {
+            return (nextLong() >>> 40) * 0x1.0p-24f;
+        }
+
+        @Override
+        public double nextDouble() {
+            return (nextLong() >>> 11) * 0x1.0p-53;
+        }
+
+        @Override
+        public boolean nextBoolean() {
+            return nextLong() < 0;
+        }
+
+        @Override
+        public RandomGenerator split() {
+            return new SplitMixRandom(mix(nextLong()));
+        }
+
+        // SplitMix64 finalizer
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+
+    /**
+     * Decides for how long a search keeps going on each turn
+     */
+    public interface SearchBudget {
+
+        /**
+         * Called as soon as the turn's input has been read
+         */
+        void startTurn();
+
+        /**
+         * @param generation how many generations have been completed so far on this turn
+         * @return true if another generation can be run
+         */
+        boolean hasNext(int generation);
+
+        /**
+         * Budgets may also look at how the search is going, by default they do not
+         *
+         * @param generation how many generations have been completed so far on this turn
+         * @param stats the statistics of the initial population and of each completed generation on this turn
+         * @return true if another generation can be run
+         */
+        default boolean hasNext(int generation, GenerationStats stats) {
+            return hasNext(generation);
+        }
+    }
+
+    /**
+     * Stops a search once its best score has plateaued, that is, once it has not improved by more than a given amount
+     * over a given number of generations, or when the decorated budget is exhausted. The time saved is left to the
+     * rest of the turn.
+     * <p>
+     * Searches keeping their elite have a non decreasing best score, so only the last generations' statistics are
+     * looked at and the policy keeps no state: it can be shared by searches running in parallel.
+     */
+    public static final class PlateauBudget implements SearchBudget {
+
+        private final SearchBudget delegate;
+        private final int patience;
+        private final double minImprovement;
+
+        /**
+         * @param delegate the budget this one stops earlier than
+         * @param patience how many generations the best score may go without improving
+         * @param minImprovement how much the best score must improve over these generations to keep going
+         */
+        public PlateauBudget(SearchBudget delegate, int patience, double minImprovement) {
+            if (patience < 1) {
+                throw new IllegalArgumentException("Patience must be positive, got " + patience);
+            }
+
+            this.delegate = delegate;
+            this.patience = patience;
+            this.minImprovement = minImprovement;
+        }
+
+        @Override
+        public void startTurn() {
+            delegate.startTurn();
+        }
+
+        @Override
+        public boolean hasNext(int generation) {
+            return delegate.hasNext(generation);
+        }
+
+        @Override
+        public boolean hasNext(int generation, GenerationStats stats) {
+            return delegate.hasNext(generation, stats) && !hasPlateaued(stats);
+        }
+
+        private boolean hasPlateaued(GenerationStats stats) {
+            int last = stats.size() - 1;
+            return last >= patience && stats.getBest(last) - stats.getBest(last - patience) <= minImprovement;
+        }
+
+        @Override
+        public String toString() {
+            return delegate + " or " + patience + " generations without improving";
+        }
+    }
+
+    /**
+     * Per generation statistics of a genetic search: the best and mean scores and the diversity of the population.
+     * Statistics are kept in primitive arrays, which grow as needed and are reused from one turn to the next, so
+     * recording a generation allocates nothing once they are large enough. Instances are not thread safe.
+     * <p>
+     * Scores are the ones assigned by the evaluation, chromosomes cut off below the elite count with a lower bound.
+     * Diversity is the ratio of distinct gene sequences in the population, told apart by their hash.
+     */
+    public static final class GenerationStats {
+
+        private static final int INITIAL_CAPACITY = 64;
+
+        private double[] best;
+        private double[] mean;
+        private double[] diversity;
+        private int size;
+
+        // scratch memory
+        private long[] hashes;
+
+        public GenerationStats() {
+            this.best = new double[INITIAL_CAPACITY];
+            this.mean = new double[INITIAL_CAPACITY];
+            this.diversity = new double[INITIAL_CAPACITY];
+            this.hashes = new long[0];
+        }
+
+        /**
+         * Forgets every recorded generation, keeping the memory
+         */
+        public void clear() {
+            size = 0;
+        }
+
+        /**
+         * Records the statistics of an evaluated population
+         */
+        public void record(List<Chromosome> pool) {
+            if (size == best.length) {
+                best = Arrays.copyOf(best, size << 1);
+                mean = Arrays.copyOf(mean, size << 1);
+                diversity = Arrays.copyOf(diversity, size << 1);
+            }
+            if (hashes.length < pool.size()) {
+                hashes = new long[pool.size()];
+            }
+
+            double max = Double.NEGATIVE_INFINITY;
+            double total = 0.0;
+            for (int i = 0; i < pool.size(); i++) {
+                Chromosome chromosome = pool.get(i);
+                max = Math.max(max, chromosome.getScore());
+                total += chromosome.getScore();
+                hashes[i] = chromosome.getGenesHash();
+            }
+
+            Arrays.sort(hashes, 0, pool.size());
+            int distinct = pool.isEmpty() ? 0 : 1;
+            for (int i = 1; i < pool.size(); i++) {
+                if (hashes[i] != hashes[i - 1]) {
+                    distinct++;
+                }
+            }
+
+            best[size] = max;
+            mean[size] = pool.isEmpty() ? 0.0 : total / pool.size();
+            diversity[size] = pool.isEmpty() ? 0.0 : (double) distinct / pool.size();
+            size++;
+        }
+
+        /**
+         * @return how many generations have been recorded, the initial population included
+         */
+        public int size() {
+            return size;
+        }
+
+        public double getBest(int generation) {
+            return best[checkGeneration(generation)];
+        }
+
+        public double getMean(int generation) {
+            return mean[checkGeneration(generation)];
+        }
+
+        public double getDiversity(int generation) {
+            return diversity[checkGeneration(generation)];
+        }
+
+        private int checkGeneration(int generation) {
+            if (generation < 0 || generation >= size) {
+                throw new IndexOutOfBoundsException("Generation " + generation + " out of " + size);
+            }
+            return generation;
+        }
+    }
+
+    /**
+     * Runs a fixed number of generations per turn
+     */
+    public static final class GenerationsBudget implements SearchBudget {
+
+        private final int generations;
+
+        public GenerationsBudget(int generations) {
+            this.generations = generations;
+        }
+
+        @Override
+        public void startTurn() {
+            // nothing to do
+        }
+
+        @Override
+        public boolean hasNext(int generation) {
+            return generation < generations;
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(generations);
+        }
+    }
+
+    /**
+     * Runs generations until a deadline measured from the end of the turn's input. The first turn usually has a
+     * larger budget than the following ones.
+     */
+    public static final class TimeBudget implements SearchBudget {
+
+        private final long firstTurnNanos;
+        private final long turnNanos;
+        private final LongSupplier nanoClock;
+
+        private boolean firstTurn;
+        private long deadline;
+
+        public TimeBudget(long firstTurnMillis, long turnMillis) {
+            this(firstTurnMillis, turnMillis, System::nanoTime);
+        }
+
+        public TimeBudget(long firstTurnMillis, long turnMillis, LongSupplier nanoClock) {
+            this.firstTurnNanos = TimeUnit.MILLISECONDS.toNanos(firstTurnMillis);
+            this.turnNanos = TimeUnit.MILLISECONDS.toNanos(turnMillis);
+            this.nanoClock = nanoClock;
+            this.firstTurn = true;
+            this.deadline = nanoClock.getAsLong();
+        }
+
+        @Override
+        public void startTurn() {
+            deadline = nanoClock.getAsLong() + (firstTurn ? firstTurnNanos : turnNanos);
+            firstTurn = false;
+        }
+
+        @Override
+        public boolean hasNext(int generation) {
+            return nanoClock.getAsLong() - deadline < 0;
+        }
+
+        @Override
+        public String toString() {
+            return TimeUnit.NANOSECONDS.toMillis(firstTurnNanos) + "ms/" + TimeUnit.NANOSECONDS.toMillis(turnNanos) +
+                    "ms";
+        }
+    }
+
+    /**
+     * Scores the chromosomes of a genetic search
+     */
+    public interface PopulationEvaluator extends AutoCloseable {
+
+        /**
+         * Called once per turn, before any evaluation
+         *
+         * @param snapshot the arena chromosomes are evaluated against
+         */
+        void prepare(BattleFieldSnapshot snapshot);
+
+        /**
+         * Scores chromosomes exactly
+         */
+        default void evaluate(List<Chromosome> chromosomes) {
+            evaluate(chromosomes, EvaluationFunction.NO_CUTOFF);
+        }
+
+        /**
+         * @param cutoff the score to beat, see {@link EvaluationFunction#evaluate(TronSimulator, Spot, ActionsType[],
+         *         double)}
+         */
+        void evaluate(List<Chromosome> chromosomes, double cutoff);
+
+        /**
+         * Releases the threads the evaluator scores with, if any
+         */
+        @Override
+        default void close() {
+            // nothing to release by default
+        }
+
+        /**
+         * @return a buffer fit to unpack the given chromosome's genes, reusing the given one when possible
+         */
+        static ActionsType[] bufferFor(Chromosome chromosome, ActionsType[] buffer) {
+            if (buffer != null && buffer.length == chromosome.getGeneLength()) {
+                return buffer;
+            }
+
+            return new ActionsType[chromosome.getGeneLength()];
+        }
+    }
+
+    /**
+     * Evaluates chromosomes one after another on the calling thread, reusing a single simulator
+     */
+    public static final class SerialPopulationEvaluator implements PopulationEvaluator {
+
+        private TronSimulator simulator;
+        private ActionsType[] buffer;
+
+        @Override
+        public void prepare(BattleFieldSnapshot snapshot) {
+            this.simulator = new TronSimulator(snapshot);
+        }
+
+        @Override
+        public void evaluate(List<Chromosome> chromosomes, double cutoff) {
+            for (Chromosome chromosome : chromosomes) {
+                buffer = PopulationEvaluator.bufferFor(chromosome, buffer);
+                chromosome.evaluate(simulator, buffer, cutoff);
+            }
+        }
+    }
+
+    /**
+     * Splits each batch of chromosomes in as many slices as the parallelism and evaluates the slices on a
+     * {@link ForkJoinPool}. Each slice owns its simulator, so no state is shared between threads. Evaluation functions
+     * are deterministic, hence scores do not depend on how slices are scheduled.
+     * <p>
+     * A pool created by the evaluator is shut down when it is closed, a given pool is left to its owner.
+     */
+    public static final class ParallelPopulationEvaluator implements PopulationEvaluator {
+
+        private final ForkJoinPool pool;
+        private final boolean ownsPool;
+        private final int parallelism;
+        private final TronSimulator[] simulators;
+        private final ActionsType[][] buffers;
+        private final List<Callable<Void>> slices;
+
+        public ParallelPopulationEvaluator(int parallelism) {
+            this(new ForkJoinPool(parallelism), true, parallelism);
+        }
+
+        public ParallelPopulationEvaluator(ForkJoinPool pool, int parallelism) {
+            this(pool, false, parallelism);
+        }
+
+        private ParallelPopulationEvaluator(ForkJoinPool pool, boolean ownsPool, int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("Parallelism must be positive, got " + parallelism);
+            }
+
+            this.pool = pool;
+            this.ownsPool = ownsPool;
+            this.parallelism = parallelism;
+            this.simulators = new TronSimulator[parallelism];
+            this.buffers = new ActionsType[parallelism][];
+            this.slices = new ArrayList<>(parallelism);
+        }
+
+        @Override
+        public void prepare(BattleFieldSnapshot snapshot) {
+            for (int i = 0; i < parallelism; i++) {
+                simulators[i] = new TronSimulator(snapshot);
+            }
+        }
+
+        @Override
+        public void evaluate(List<Chromosome> chromosomes, double cutoff) {
+            int sliceSize = (chromosomes.size() + parallelism - 1) / parallelism;
+
+            slices.clear();
+            for (int i = 0; i < parallelism && i * sliceSize < chromosomes.size(); i++) {
+                int sliceIndex = i;
+                List<Chromosome> slice =
+                        chromosomes.subList(i * sliceSize, Math.min((i + 1) * sliceSize, chromosomes.size()));
+
+                slices.add(() -> {
+                    for (Chromosome chromosome : slice) {
+                        buffers[sliceIndex] = PopulationEvaluator.bufferFor(chromosome, buffers[sliceIndex]);
+                        chromosome.evaluate(simulators[sliceIndex], buffers[sliceIndex], cutoff);
+                    }
+                    return null;
+                });
+            }
+
+            try {
+                for (Future<Void> future : pool.invokeAll(slices)) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while evaluating chromosomes", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Failed to evaluate chromosomes", e.getCause());
+            }
+        }
+
+        @Override
+        public void close() {
+            if (ownsPool) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Shares the simulation of common gene prefixes between chromosomes. Chromosomes are visited in lexicographic
+     * order of their genes, and only the genes after the prefix shared with the previously visited chromosome are
+     * simulated, starting from a checkpoint of the shared prefix. Evaluation functions then get the simulated
+     * movements replayed (see {@link TronSimulator#replay(int, ActionsType[], boolean[], int)}).
+     * <p>
+     * Evaluation functions must perform the chromosome's genes in order, and must not look at the simulator after
+     * they stop performing movements early, since all genes have already been simulated by then.
+     */
+    public static final class PrefixSharingPopulationEvaluator implements PopulationEvaluator {
+
+        private static final Comparator<Chromosome> LEXICOGRAPHIC_ORDER = (c1, c2) -> {
+            int length = Math.min(c1.getGeneLength(), c2.getGeneLength());
+            for (int i = 0; i < length; i++) {
+                int comparison = Integer.compare(c1.getGene(i), c2.getGene(i));
+                if (comparison != 0) {
+                    return comparison;
+                }
+            }
+            return Integer.compare(c1.getGeneLength(), c2.getGeneLength());
+        };
+
+        private final List<Chromosome> sorted;
+
+        private TronSimulator simulator;
+
+        // checkpoints of the current path: simulator's mark before each gene, and each gene's result
+        private ActionsType[] path;
+        private boolean[] results;
+        private int[] marks;
+
+        private ActionsType[] buffer;
+
+        private long simulatedSteps;
+
+        public PrefixSharingPopulationEvaluator() {
+            this.sorted = new ArrayList<>();
+            this.path = new ActionsType[0];
+            this.results = new boolean[0];
+            this.marks = new int[1];
+        }
+
+        @Override
+        public void prepare(BattleFieldSnapshot snapshot) {
+            this.simulator = new TronSimulator(snapshot);
+        }
+
+        @Override
+        public void evaluate(List<Chromosome> chromosomes, double cutoff) {
+            sorted.clear();
+            sorted.addAll(chromosomes);
+            sorted.sort(LEXICOGRAPHIC_ORDER);
+
+            simulator.reset();
+
+            Chromosome previous = null;
+            int depth = 0;
+
+            for (Chromosome chromosome : sorted) {
+                int length = chromosome.getGeneLength();
+                ensureCapacity(length);
+
+                // equal genes decode to equal movements as long as chromosomes are encoded the same way
+                int shared = previous != null &&
+                        previous.getStartAt().equals(chromosome.getStartAt()) &&
+                        previous.getEncoding() == chromosome.getEncoding() ?
+                        commonPrefix(previous, chromosome, depth) : 0;
+
+                simulator.rewind(marks[shared]);
+
+                buffer = PopulationEvaluator.bufferFor(chromosome, buffer);
+                chromosome.decode(simulator, buffer);
+
+                int player = simulator.playerIndex(chromosome.getStartAt());
+                for (int i = shared; i < length; i++) {
+                    path[i] = buffer[i];
+                    results[i] = simulator.perform(player, path[i]);
+                    marks[i + 1] = simulator.mark();
+                }
+
+                simulatedSteps += length - shared;
+                depth = length;
+                previous = chromosome;
+
+                simulator.replay(player, path, results, length);
+                chromosome.evaluate(simulator, buffer, cutoff);
+            }
+
+            simulator.reset();
+        }
+
+        /**
+         * @return how many movements have been simulated so far, shared prefixes are only counted once
+         */
+        public long getSimulatedSteps() {
+            return simulatedSteps;
+        }
+
+        private static int commonPrefix(Chromosome c1, Chromosome c2, int max) {
+            int length = Math.min(max, c2.getGeneLength());
+            int i = 0;
+            while (i < length && c1.getGene(i) == c2.getGene(i)) {
+                i++;
+            }
+            return i;
+        }
+
+        private void ensureCapacity(int length) {
+            if (path.length < length) {
+                path = Arrays.copyOf(path, length);
+                results = Arrays.copyOf(results, length);
+                marks = Arrays.copyOf(marks, length + 1);
+            }
+        }
+    }
+
+    /**
+     * Resumes the simulation of chromosomes bred by mutation or cross over from their parents' results. Once
+     * evaluated, a chromosome keeps the result of each of its movements; its children inherit the results of the genes
+     * before their pivot, so only the genes after it get simulated (see
+     * {@link TronSimulator#fastForward(int, ActionsType[], long[], int)}). Evaluation functions then get the simulated
+     * movements replayed (see {@link TronSimulator#replay(int, ActionsType[], boolean[], int)}). Chromosomes whose
+     * results are all known have already been evaluated on this turn, such as parents carried over unchanged to the
+     * next generation, and keep their score.
+     * <p>
+     * Evaluation functions must perform the chromosome's genes in order, and must not look at the simulator after
+     * they stop performing movements early, since all genes have already been simulated by then.
+     */
+    public static final class ResumingPopulationEvaluator implements PopulationEvaluator {
+
+        private TronSimulator simulator;
+        private ActionsType[] buffer;
+        private boolean[] replayed;
+
+        private long simulatedSteps;
+
+        public ResumingPopulationEvaluator() {
+            this.replayed = new boolean[0];
+        }
+
+        @Override
+        public void prepare(BattleFieldSnapshot snapshot) {
+            this.simulator = new TronSimulator(snapshot);
+        }
+
+        @Override
+        public void evaluate(List<Chromosome> chromosomes, double cutoff) {
+            for (Chromosome chromosome : chromosomes) {
+                int length = chromosome.getGeneLength();
+                if (chromosome.getKnownResults() == length) {
+                    continue;
+                }
+
+                if (replayed.length < length) {
+                    replayed = new boolean[length];
+                }
+
+                buffer = PopulationEvaluator.bufferFor(chromosome, buffer);
+                chromosome.decode(simulator, buffer);
+
+                int mark = simulator.mark();
+                int player = simulator.playerIndex(chromosome.getStartAt());
+
+                int known = chromosome.getKnownResults();
+                long[] results = Arrays.copyOf(chromosome.getResults(), (length + Long.SIZE - 1) / Long.SIZE);
+                simulator.fastForward(player, buffer, results, known);
+
+                for (int i = 0; i < known; i++) {
+                    replayed[i] = (results[i >>> 6] & 1L << i) != 0;
+                }
+                for (int i = known; i < length; i++) {
+                    replayed[i] = simulator.perform(player, buffer[i]);
+                    if (replayed[i]) {
+                        results[i >>> 6] |= 1L << i;
+                    } else {
+                        results[i >>> 6] &= ~(1L << i);
+                    }
+                }
+
+                simulatedSteps += length - known;
+                chromosome.setResults(results, length);
+
+                simulator.replay(player, buffer, replayed, length);
+                chromosome.evaluate(simulator, buffer, cutoff);
+                simulator.rewind(mark);
+            }
+        }
+
+        /**
+         * @return how many movements have been simulated so far, inherited results are not counted
+         */
+        public long getSimulatedSteps() {
+            return simulatedSteps;
+        }
+    }
+
+    /**
+     * Remembers the scores of the gene sequences evaluated on the current turn, so that sequences showing up again
+     * (carried over by elitism, or selected several times) are not evaluated twice. Chromosomes missing from the cache
+     * are evaluated by the decorated evaluator.
+     * <p>
+     * The cache is direct mapped: each key has a single slot, and a newer entry overwrites an older one. Keys mix the
+     * hash of the packed genes with the arena's Zobrist key, and are stored in full, so a slot only serves the exact
+     * same plan on the exact same arena (up to 64 bit hash collisions). The cache is cleared on each turn.
+     * <p>
+     * Scores cut off below a cutoff are cached as well. They are lower bounds, so they never rank a plan above one
+     * it does not beat, and the plan could not beat any later cutoff either: the cutoff is the elite's score, which
+     * never decreases along a turn.
+     */
+    public static final class CachingPopulationEvaluator implements PopulationEvaluator {
+
+        // marks an empty slot, keys of this value are moved to another value
+        private static final long EMPTY = 0L;
+
+        private final PopulationEvaluator delegate;
+        private final long[] keys;
+        private final double[] scores;
+        private final int mask;
+        private final List<Chromosome> misses;
+
+        private long arenaHash;
+        private long hits;
+        private long missCount;
+
+        /**
+         * @param capacity how many scores are kept, rounded up to a power of two
+         */
+        public CachingPopulationEvaluator(PopulationEvaluator delegate, int capacity) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+            }
+
+            int size = Integer.highestOneBit(capacity);
+            if (size < capacity) {
+                size <<= 1;
+            }
+
+            this.delegate = delegate;
+            this.keys = new long[size];
+            this.scores = new double[size];
+            this.mask = size - 1;
+            this.misses = new ArrayList<>();
+        }
+
+        @Override
+        public void prepare(BattleFieldSnapshot snapshot) {
+            Arrays.fill(keys, EMPTY);
+            arenaHash = snapshot.getHash();
+            delegate.prepare(snapshot);
+        }
+
+        @Override
+        public void evaluate(List<Chromosome> chromosomes, double cutoff) {
+            misses.clear();
+            for (Chromosome chromosome : chromosomes) {
+                long key = keyOf(chromosome);
+                int slot = (int) key & mask;
+
+                if (keys[slot] == key) {
+                    chromosome.setScore(scores[slot]);
+                    hits++;
+                } else {
+                    misses.add(chromosome);
+                    missCount++;
+                }
+            }
+
+            if (misses.isEmpty()) {
+                return;
+            }
+
+            delegate.evaluate(misses, cutoff);
+
+            for (Chromosome chromosome : misses) {
+                long key = keyOf(chromosome);
+                int slot = (int) key & mask;
+
+                keys[slot] = key;
+                scores[slot] = chromosome.getScore();
+            }
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+
+        private long keyOf(Chromosome chromosome) {
+            long key = Zobrist.mix(chromosome.getGenesHash() ^ arenaHash);
+            return key == EMPTY ? 1L : key;
+        }
+
+        /**
+         * @return how many chromosomes got their score from the cache so far
+         */
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * @return how many chromosomes have been evaluated by the decorated evaluator so far
+         */
+        public long getMisses() {
+            return missCount;
+        }
+    }
+
+    /**
+     * How the genes of a chromosome map to movements
+     */
+    public enum GeneEncoding {
+
+        /**
+         * Each gene is an {@link ActionsType}. A quarter of random genes lead back into the light cycle's own trail.
+         */
+        ABSOLUTE(ActionsType.values().length),
+
+        /**
+         * Each gene is a {@link Turn} from the previous movement, so that no gene leads back into the light cycle's
+         * own trail.
+         */
+        RELATIVE(Turn.values().length);
+
+        private final int geneValues;
+
+        GeneEncoding(int geneValues) {
+            this.geneValues = geneValues;
+        }
+
+        /**
+         * @return how many distinct values a gene takes
+         */
+        public int getGeneValues() {
+            return geneValues;
+        }
+    }
+
+    /**
+     * A plan of movements. Genes are packed two bits per movement (the ordinal of an {@link ActionsType} or of a
+     * {@link Turn}, depending on the {@link GeneEncoding}), 32 movements per word, so crossing over is a matter of
+     * masking words.
+     */
+    static class Chromosome implements Comparable<Chromosome> {
+
+        private static final ActionsType[] POSSIBLE_ACTIONS = ActionsType.values();
+        private static final Turn[] POSSIBLE_TURNS = Turn.values();
+        private static final long[] NO_RESULTS = new long[0];
+
+        private static final int GENE_BITS = 2;
+        private static final int GENES_PER_WORD = 32;
+        private static final long GENE_MASK = 3L;
+
+        private final EvaluationFunction evaluationFunction;
+        private final Spot startAt;
+        private final RandomGenerator random;
+        private final GeneEncoding encoding;
+        private final long[] genes;
+        private final int length;
+        private double score;
+
+        // result of the first movements on this turn's arena, one bit per movement, see ResumingPopulationEvaluator
+        private long[] results;
+        private int knownResults;
+
+        // lazily computed, genes never change
+        private long genesHash;
+
+        public Chromosome(
+                ActionsType[] genes,
+                EvaluationFunction evaluationFunction,
+                Spot startAt,
+                RandomGenerator random) {
+
+            this(new long[words(genes.length)], genes.length, GeneEncoding.ABSOLUTE, evaluationFunction, startAt,
+                    random);
+
+            for (int i = 0; i < genes.length; i++) {
+                this.genes[i / GENES_PER_WORD] |= (long) genes[i].ordinal() << bitOffset(i);
+            }
+        }
+
+        public Chromosome(
+                Turn[] genes,
+                EvaluationFunction evaluationFunction,
+                Spot startAt,
+                RandomGenerator random) {
+
+            this(new long[words(genes.length)], genes.length, GeneEncoding.RELATIVE, evaluationFunction, startAt,
+                    random);
+
+            for (int i = 0; i < genes.length; i++) {
+                this.genes[i / GENES_PER_WORD] |= (long) genes[i].ordinal() << bitOffset(i);
+            }
+        }
+
+        private Chromosome(
+                long[] genes,
+                int length,
+                GeneEncoding encoding,
+                EvaluationFunction evaluationFunction,
+                Spot startAt,
+                RandomGenerator random) {
+
+            this.genes = genes;
+            this.length = length;
+            this.encoding = encoding;
+            this.evaluationFunction = evaluationFunction;
+            this.startAt = startAt;
+            this.random = random;
+            this.score = 0.0;
+            this.results = NO_RESULTS;
+            this.knownResults = 0;
+        }
+
+        /**
+         * @return a chromosome with random genes
+         */
+        static Chromosome random(
+                int length,
+                GeneEncoding encoding,
+                EvaluationFunction evaluationFunction,
+                Spot startAt,
+                RandomGenerator random) {
+
+            long[] genes = new long[words(length)];
+
+            if (encoding.getGeneValues() == 1 << GENE_BITS) {
+                // every bit pattern is a valid gene
+                for (int i = 0; i < genes.length; i++) {
+                    genes[i] = random.nextLong();
+                }
+                genes[genes.length - 1] &= lowGenesMask(length - (genes.length - 1) * GENES_PER_WORD);
+            } else {
+                for (int i = 0; i < length; i++) {
+                    genes[i / GENES_PER_WORD] |= (long) random.nextInt(encoding.getGeneValues()) << bitOffset(i);
+                }
+            }
+
+            return new Chromosome(genes, length, encoding, evaluationFunction, startAt, random);
+        }
+
+        /**
+         * Scores the chromosome, leaving the simulator on the same state it was before the evaluation
+         */
+        public void evaluate(TronSimulator gameEngine) {
+            evaluate(gameEngine, new ActionsType[length]);
+        }
+
+        /**
+         * Scores the chromosome, leaving the simulator on the same state it was before the evaluation
+         *
+         * @param buffer where genes get decoded for the evaluation function, it must be as long as the chromosome
+         */
+        public void evaluate(TronSimulator gameEngine, ActionsType[] buffer) {
+            evaluate(gameEngine, buffer, EvaluationFunction.NO_CUTOFF);
+        }
+
+        /**
+         * Scores the chromosome, leaving the simulator on the same state it was before the evaluation
+         *
+         * @param buffer where genes get decoded for the evaluation function, it must be as long as the chromosome
+         * @param cutoff the score to beat, see {@link EvaluationFunction#evaluate(TronSimulator, Spot, ActionsType[],
+         *         double)}
+         */
+        public void evaluate(TronSimulator gameEngine, ActionsType[] buffer, double cutoff) {
+            decode(gameEngine, buffer);
+
+            int mark = gameEngine.mark();
+            this.score = evaluationFunction.evaluate(gameEngine, startAt, buffer, cutoff);
+            gameEngine.rewind(mark);
+        }
+
+        /**
+         * Decodes the genes into movements, relative turns are decoded from the heading the simulator has been
+         * created with
+         *
+         * @param movements where movements are written, it must be as long as the chromosome
+         */
+        void decode(TronSimulator gameEngine, ActionsType[] movements) {
+            decode(encoding == GeneEncoding.RELATIVE ? gameEngine.getHeading(gameEngine.playerIndex(startAt)) : null,
+                    movements);
+        }
+
+        /**
+         * Decodes the genes into movements
+         *
+         * @param heading the light cycle's last movement, only used by relative turns
+         * @param movements where movements are written, it must be as long as the chromosome
+         */
+        void decode(ActionsType heading, ActionsType[] movements) {
+            if (encoding == GeneEncoding.ABSOLUTE) {
+                for (int i = 0; i < length; i++) {
+                    movements[i] = POSSIBLE_ACTIONS[getGene(i)];
+                }
+            } else {
+                for (int i = 0; i < length; i++) {
+                    heading = POSSIBLE_TURNS[getGene(i)].apply(heading);
+                    movements[i] = heading;
+                }
+            }
+        }
+
+        public Chromosome[] crossOver(Chromosome another) {
+
+            int pivot = random.nextInt(another.length);
+
+            if (pivot == 0) {
+                // no gene comes from the first parent: children would be copies of the parents
+                return new Chromosome[] { another, this };
+            }
+
+            long[] child1 = new long[another.genes.length];
+            long[] child2 = new long[genes.length];
+
+            for (int i = 0; i < child1.length; i++) {
+                // genes before the pivot come from the first parent
+                long mask = lowGenesMask(pivot - i * GENES_PER_WORD);
+
+                child1[i] = (genes[i] & mask) | (another.genes[i] & ~mask);
+                child2[i] = (another.genes[i] & mask) | (genes[i] & ~mask);
+            }
+
+            Chromosome[] children = {
+                    new Chromosome(child1, another.length, encoding, evaluationFunction, startAt, random),
+                    new Chromosome(child2, length, encoding, evaluationFunction, startAt, random) };
+
+            children[0].inheritResults(this, pivot);
+            children[1].inheritResults(another, pivot);
+
+            return children;
+        }
+
+        /**
+         * @return a chromosome with the first gene dropped and a random gene appended, that is, the same plan one
+         *         move later
+         */
+        public Chromosome shift() {
+            long[] shifted = new long[genes.length];
+
+            for (int i = 0; i < genes.length; i++) {
+                long next = i + 1 < genes.length ? genes[i + 1] : 0L;
+                shifted[i] = (genes[i] >>> GENE_BITS) | (next << (Long.SIZE - GENE_BITS));
+            }
+
+            int last = length - 1;
+            shifted[last / GENES_PER_WORD] |= (long) random.nextInt(encoding.getGeneValues()) << bitOffset(last);
+
+            return new Chromosome(shifted, length, encoding, evaluationFunction, startAt, random);
+        }
+
+        public Chromosome mutate() {
+            long[] mutate = genes.clone();
+            int pivot = random.nextInt(length);
+            int values = encoding.getGeneValues();
+
+            // adding 1 to values - 1 modulo the number of values always leads to a different gene
+            int gene = getGene(pivot);
+            int mutated = (gene + 1 + random.nextInt(values - 1)) % values;
+            mutate[pivot / GENES_PER_WORD] ^= (long) (gene ^ mutated) << bitOffset(pivot);
+
+            Chromosome child = new Chromosome(mutate, length, encoding, evaluationFunction, startAt, random);
+            child.inheritResults(this, pivot);
+            return child;
+        }
+
+        /**
+         * Shares the parent's results of the genes before the pivot, which are the same on both chromosomes. Results
+         * are never modified once set, so they are shared rather than copied.
+         */
+        private void inheritResults(Chromosome parent, int pivot) {
+            this.results = parent.results;
+            this.knownResults = Math.min(parent.knownResults, pivot);
+        }
+
+        /**
+         * @return the result of the first movements on this turn's arena, one bit per movement
+         */
+        long[] getResults() {
+            return results;
+        }
+
+        /**
+         * @return how many movements have a known result
+         */
+        int getKnownResults() {
+            return knownResults;
+        }
+
+        void setResults(long[] results, int knownResults) {
+            this.results = results;
+            this.knownResults = knownResults;
+        }
+
+        /**
+         * @return the same evaluated chromosome, breeding with the given generator
+         */
+        Chromosome withRandom(RandomGenerator random) {
+            Chromosome copy = new Chromosome(genes, length, encoding, evaluationFunction, startAt, random);
+            copy.score = score;
+            copy.results = results;
+            copy.knownResults = knownResults;
+            copy.genesHash = genesHash;
+            return copy;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        /**
+         * Sets a score computed elsewhere for the same genes, see {@link CachingPopulationEvaluator}
+         */
+        void setScore(double score) {
+            this.score = score;
+        }
+
+        /**
+         * @return a hash of the plan: the packed genes, their encoding and the light cycle they move
+         */
+        long getGenesHash() {
+            if (genesHash == 0L) {
+                long hash = Zobrist.mix(((long) length << 8 | encoding.ordinal()) ^ startAt.hashCode());
+                for (long word : genes) {
+                    hash = Zobrist.mix(hash ^ word);
+                }
+                genesHash = hash;
+            }
+
+            return genesHash;
+        }
+
+        /**
+         * @return the movements of an absolutely encoded chromosome
+         */
+        public ActionsType[] getGenes() {
+            if (encoding != GeneEncoding.ABSOLUTE) {
+                throw new IllegalStateException("Genes are " + encoding + " turns");
+            }
+
+            ActionsType[] actions = new ActionsType[length];
+            decode((ActionsType) null, actions);
+            return actions;
+        }
+
+        /**
+         * @return the turns of a relatively encoded chromosome
+         */
+        public Turn[] getTurns() {
+            if (encoding != GeneEncoding.RELATIVE) {
+                throw new IllegalStateException("Genes are " + encoding + " movements");
+            }
+
+            Turn[] turns = new Turn[length];
+            for (int i = 0; i < length; i++) {
+                turns[i] = POSSIBLE_TURNS[getGene(i)];
+            }
+            return turns;
+        }
+
+        /**
+         * @return the ordinal of the gene at the given index, see {@link GeneEncoding}
+         */
+        int getGene(int index) {
+            return (int) (genes[index / GENES_PER_WORD] >>> bitOffset(index) & GENE_MASK);
+        }
+
+        int getGeneLength() {
+            return length;
+        }
+
+        GeneEncoding getEncoding() {
+            return encoding;
+        }
+
+        Spot getStartAt() {
+            return startAt;
+        }
+
+        private static int words(int length) {
+            return (length + GENES_PER_WORD - 1) / GENES_PER_WORD;
+        }
+
+        private static int bitOffset(int index) {
+            return (index % GENES_PER_WORD) * GENE_BITS;
+        }
+
+        /**
+         * @return a mask covering the given number of genes from the start of a word
+         */
+        private static long lowGenesMask(int genes) {
+            if (genes <= 0) {
+                return 0L;
+            }
+
+            if (genes >= GENES_PER_WORD) {
+                return -1L;
+            }
+
+            return (1L << (genes * GENE_BITS)) - 1;
+        }
+
+        @Override
+        public int compareTo(Chromosome c) {
+            if (score < c.score) {
+                return -1;
+            } else if (score > c.score) {
+                return 1;
+            }
+
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Chromosome{" + "startAt=" + startAt +
+                    ", genes=" + (encoding == GeneEncoding.ABSOLUTE ?
+                            Arrays.toString(getGenes()) : Arrays.toString(getTurns())) +
+                    ", score=" + score +
+                    '}';
+        }
+    }
+
+    static class InputRepository extends Repository {
+
+        private int N;
+        private int P;
+
+        private final BattleField battleField;
+        private final Set<Spot> opponenetsStartSpots;
+        private Spot playerStartSpot;
+
+        protected InputRepository(IntSupplier inputSupplier) {
+            super(inputSupplier);
+            this.battleField = new BattleField();
+            opponenetsStartSpots = new HashSet<>();
+        }
+
+        @Override
+        public void update() {
+            N = readInput(); // total number of players (2 to 4).
+            P = readInput(); // your player number (0 to 3).
+
+            Set<Spot> lightCyclesAlive = new HashSet<>(N);
+
+            for (int i = 0; i < N; i++) {
+
+                int X0 = readInput(); // starting X coordinate of lightcycle (or -1)
+                int Y0 = readInput(); // starting Y coordinate of lightcycle (or -1)
+
+                int X1 = readInput(); // starting X coordinate of lightcycle (can be the same as X0 if you
+                // play before this player)
+                int Y1 = readInput(); // starting Y coordinate of lightcycle (can be the same as Y0 if you
+                // play before this player)
+
+                Spot startSpot = Spot.of(X0, Y0);
+                Spot currentSpot = Spot.of(X1, Y1);
+
+                if (battleField.hasLightCycleStartingAt(startSpot)) {
+                    battleField.moveTo(startSpot, currentSpot);
+                } else {
+
+                    if (i != P) {
+                        opponenetsStartSpots.add(startSpot);
+                    } else {
+                        playerStartSpot = startSpot;
+                    }
+
+                    battleField.addLightCycleAt(startSpot, currentSpot);
+                }
+
+                lightCyclesAlive.add(startSpot);
+            }
+
+            Set<Spot> killedLightCycles = new HashSet<>(battleField.getLightCyclesStartingSpots());
+            killedLightCycles.removeAll(lightCyclesAlive);
+
+            battleField.killLightCycles(killedLightCycles);
+        }
+
+        public int getN() {
+            return N;
+        }
+
+        public int getP() {
+            return P;
+        }
+
+        public BattleFieldSnapshot getBattleField() {
+            return battleField.getSnapshot();
+        }
+
+        public Spot getPlayerLightCycleStartSpot() {
+            return playerStartSpot;
+        }
+
+        public Set<Spot> getOpponentLightCyclesStartSpot() {
+            return Collections.unmodifiableSet(opponenetsStartSpots);
+        }
+    }
+
+    public static final class BattleField {
+
+        private static final int MAX_X = 30;
+        private static final int MAX_Y = 20;
+
+        static final GridSize GRID_SIZE = new GridSize(MAX_X, MAX_Y);
+
+        private final Map<Spot, Spot> currentSpot;
+        private final Map<Spot, ActionsType> headings;
+        private final Map<Spot, BitBoard> visitedSpots;
+        private final BitBoard grid;
+        private int availableSpotsCnt;
+        private long hash;
+
+        public BattleField() {
+            this.grid = new BitBoard(GRID_SIZE);
+            this.currentSpot = new HashMap<>();
+            this.headings = new HashMap<>();
+            this.visitedSpots = new HashMap<>();
+            this.availableSpotsCnt = MAX_X * MAX_Y;
+            this.hash = 0L;
+        }
+
+        public BattleField(BattleField another) {
+            this.availableSpotsCnt = another.availableSpotsCnt;
+            this.hash = another.hash;
+            this.currentSpot = new HashMap<>(another.currentSpot);
+            this.headings = new HashMap<>(another.headings);
+            this.visitedSpots = new HashMap<>(another.visitedSpots.size());
+
+            another.visitedSpots.forEach((key, value) -> this.visitedSpots.put(key, new BitBoard(value)));
+
+            this.grid = new BitBoard(another.grid);
+        }
+
+        public Set<Spot> getLightCyclesStartingSpots() {
+            return currentSpot.keySet();
+        }
+
+        public boolean hasLightCycleStartingAt(Spot startSpot) {
+            return currentSpot.containsKey(startSpot);
+        }
+
+        public void addLightCycleAt(Spot startSpot, Spot currentSpot) {
+
+            if (!startSpot.equals(currentSpot) && !startSpot.isNeighborOf(currentSpot)) {
+                throw new IllegalStateException(
+                        "Cannot add non-neighbors spots start=" + startSpot +
+                                ", current=" + currentSpot);
+            }
+
+            this.currentSpot.put(startSpot, currentSpot);
+            this.headings.put(startSpot, startSpot.equals(currentSpot) ?
+                    headingTowardsCentre(currentSpot) : startSpot.directionTo(currentSpot));
+
+            BitBoard visitedSpots = new BitBoard(GRID_SIZE);
+            visitedSpots.set(startSpot.getX(), startSpot.getY());
+            visitedSpots.set(currentSpot.getX(), currentSpot.getY());
+
+            this.visitedSpots.put(startSpot, visitedSpots);
+
+            int startCell = GRID_SIZE.cellOf(startSpot);
+            int currentCell = GRID_SIZE.cellOf(currentSpot);
+
+            grid.set(startCell);
+            availableSpotsCnt--;
+            hash ^= Zobrist.occupied(startCell);
+            if (!startSpot.equals(currentSpot)) {
+                grid.set(currentCell);
+                availableSpotsCnt--;
+                hash ^= Zobrist.occupied(currentCell);
+            }
+
+            hash ^= Zobrist.head(startCell, currentCell);
+        }
+
+        public void moveTo(Spot startSpot, Spot currentSpot) {
+            Spot past = this.currentSpot.get(startSpot);
+
+            if (past == null || !past.isNeighborOf(currentSpot)) {
+                throw new IllegalStateException("Cannot move from " + past + " to " + currentSpot);
+            }
+
+            this.currentSpot.put(startSpot, currentSpot);
+            this.headings.put(startSpot, past.directionTo(currentSpot));
+            visitedSpots.get(startSpot).set(currentSpot.getX(), currentSpot.getY());
+
+            int startCell = GRID_SIZE.cellOf(startSpot);
+            int currentCell = GRID_SIZE.cellOf(currentSpot);
+
+            grid.set(currentCell);
+            availableSpotsCnt--;
+            hash ^= Zobrist.occupied(currentCell) ^
+                    Zobrist.head(startCell, GRID_SIZE.cellOf(past)) ^
+                    Zobrist.head(startCell, currentCell);
+        }
+
+        public Spot getCurrentSpot(Spot startSpot) {
+            return currentSpot.get(startSpot);
+        }
+
+        /**
+         * @return the last movement of the light cycle, or the direction towards the arena's centre if it has not
+         *         moved yet
+         */
+        public ActionsType getHeading(Spot startSpot) {
+            return headings.get(startSpot);
+        }
+
+        private static ActionsType headingTowardsCentre(Spot spot) {
+            int dx = MAX_X / 2 - spot.getX();
+            int dy = MAX_Y / 2 - spot.getY();
+
+            if (Math.abs(dx) >= Math.abs(dy)) {
+                return dx >= 0 ? ActionsType.RIGHT : ActionsType.LEFT;
+            }
+
+            return dy >= 0 ? ActionsType.DOWN : ActionsType.UP;
+        }
+
+        public boolean hasBeenVisited(int x, int y) {
+            return grid.get(x, y);
+        }
+
+        public boolean hasBeenVisited(int cell) {
+            return grid.get(cell);
+        }
+
+        public GridSize getGridSize() {
+            return GRID_SIZE;
+        }
+
+        /**
+         * @return the live occupancy board of the arena; callers must not modify it
+         */
+        public BitBoard getGrid() {
+            return grid;
+        }
+
+        public boolean hasBeenVisited(Spot spot) {
+            return hasBeenVisited(spot.getX(), spot.getY());
+        }
+
+        public Set<Spot> getStartSpots() {
+            return currentSpot.keySet();
+        }
+
+        public void killLightCycles(Set<Spot> startSpots) {
+
+            for (Spot startSpot : startSpots) {
+                int startCell = GRID_SIZE.cellOf(startSpot);
+                hash ^= Zobrist.head(startCell, GRID_SIZE.cellOf(currentSpot.remove(startSpot)));
+                headings.remove(startSpot);
+
+                BitBoard trail = visitedSpots.remove(startSpot);
+                for (int cell = trail.nextSetBit(0); cell >= 0; cell = trail.nextSetBit(cell + 1)) {
+                    hash ^= Zobrist.occupied(cell);
+                }
+
+                grid.andNot(trail);
+                availableSpotsCnt += trail.cardinality();
+            }
+        }
+
+        public int getAvailableSpotsCount() {
+            return availableSpotsCnt;
+        }
+
+        /**
+         * @return the Zobrist key of the arena, covering occupied spots and light cycles' positions
+         */
+        public long getHash() {
+            return hash;
+        }
+
+        public BattleFieldSnapshot getSnapshot() {
+            return new BattleFieldSnapshot(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            BattleField that = (BattleField) o;
+            return hash == that.hash &&
+                    Objects.equals(grid, that.grid) &&
+                    Objects.equals(currentSpot, that.currentSpot) &&
+                    Objects.equals(visitedSpots, that.visitedSpots);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(hash);
+        }
+    }
+
+    public static final class BattleFieldSnapshot {
+
+        private final BattleField battleField;
+
+        public BattleFieldSnapshot(BattleField battleField) {
+
+            // In order to optimize, we won't be copying the arena's state,
+            // and therefore after each round the snapshot is deprecated
+            this.battleField = battleField;
+        }
+
+        public Set<Spot> getStartSpots() {
+            return battleField.getStartSpots();
+        }
+
+        public Spot getCurrentSpot(Spot startSpot) {
+            return battleField.getCurrentSpot(startSpot);
+        }
+
+        public ActionsType getHeading(Spot startSpot) {
+            return battleField.getHeading(startSpot);
+        }
+
+        public boolean hasBeenVisited(int x, int y) {
+            return battleField.hasBeenVisited(x, y);
+        }
+
+        public boolean hasBeenVisited(int cell) {
+            return battleField.hasBeenVisited(cell);
+        }
+
+        public GridSize getGridSize() {
+            return battleField.getGridSize();
+        }
+
+        public BitBoard getGrid() {
+            return battleField.getGrid();
+        }
+
+        public int getAvailableSpotsCount() {
+            return battleField.getAvailableSpotsCount();
+        }
+
+        public long getHash() {
+            return battleField.getHash();
+        }
+
+        public boolean hasBeenVisited(Spot spot) {
+            return battleField.hasBeenVisited(spot);
+        }
+    }
+
+    /**
+     * Zobrist keys of the arena: a position's key is the XOR of the keys of its occupied cells and of each light
+     * cycle's head, so it can be updated incrementally on every move. Keys are generated from a fixed seed, so they are
+     * the same for every battlefield and simulator.
+     */
+    public static final class Zobrist {
+
+        private static final long SEED = 0x5DEECE66DL;
+
+        private static final long[] OCCUPIED = new long[BattleField.GRID_SIZE.getCellsCount()];
+        private static final long[] HEADS = new long[BattleField.GRID_SIZE.getCellsCount()];
+        private static final long[] STARTS = new long[BattleField.GRID_SIZE.getCellsCount()];
+
+        static {
+            long state = SEED;
+            for (int cell = 0; cell < OCCUPIED.length; cell++) {
+                OCCUPIED[cell] = mix(state += 0x9E3779B97F4A7C15L);
+                HEADS[cell] = mix(state += 0x9E3779B97F4A7C15L);
+                STARTS[cell] = mix(state += 0x9E3779B97F4A7C15L);
+            }
+        }
+
+        private Zobrist() {
+            // utility class
+        }
+
+        public static long occupied(int cell) {
+            return OCCUPIED[cell];
+        }
+
+        /**
+         * @param startCell the cell where the light cycle started, which identifies it
+         * @param cell where the light cycle's head is
+         */
+        public static long head(int startCell, int cell) {
+            return mix(HEADS[cell] ^ STARTS[startCell]);
+        }
+
+        // SplitMix64 finalizer
+        static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+
+    /**
+     * Flood fill over a {@link BitBoard}: the region grows with shift-and-mask steps over whole words until it reaches
+     * a fixed point. All working memory is allocated once, so computing an area allocates nothing. Instances are not
+     * thread safe.
+     */
+    public static final class BitFloodFill {
+
+        private final int width;
+        private final int wordCount;
+
+        private final long[] valid;
+        private final long[] notFirstColumn;
+        private final long[] notLastColumn;
+
+        // scratch memory
+        private final long[] free;
+        private final long[] region;
+
+        public BitFloodFill(GridSize gridSize) {
+            if (gridSize.getMaxX() <= 0 || gridSize.getMaxX() >= 64) {
+                throw new IllegalArgumentException("Unsupported grid width " + gridSize.getMaxX());
+            }
+
+            this.width = gridSize.getMaxX();
+
+            int cells = gridSize.getMaxX() * gridSize.getMaxY();
+            this.wordCount = (cells + 63) >>> 6;
+
+            this.valid = new long[wordCount];
+            this.notFirstColumn = new long[wordCount];
+            this.notLastColumn = new long[wordCount];
+            this.free = new long[wordCount];
+            this.region = new long[wordCount];
+
+            for (int cell = 0; cell < cells; cell++) {
+                long bit = 1L << cell;
+                valid[cell >>> 6] |= bit;
+                if (cell % width != 0) {
+                    notFirstColumn[cell >>> 6] |= bit;
+                }
+                if (cell % width != width - 1) {
+                    notLastColumn[cell >>> 6] |= bit;
+                }
+            }
+        }
+
+        /**
+         * Computes the available area within a grid from a given target point
+         *
+         * @param occupied the board of occupied spots, it must have the same size as this flood fill
+         * @param x the target's x coordinate. The target might be an occupied spot.
+         * @param y the target's y coordinate
+         * @see FloodFillAI#floodFillArea(AvailableSpot, GridSize, Spot)
+         */
+        public int area(BitBoard occupied, int x, int y) {
+            return area(occupied, y * width + x);
+        }
+
+        /**
+         * Computes the available area within a grid from a given target cell
+         *
+         * @param occupied the board of occupied spots, it must have the same size as this flood fill
+         * @param cell the target cell (see {@link GridSize#cellOf(int, int)}). It might be an occupied spot.
+         */
+        public int area(BitBoard occupied, int cell) {
+            int seedWord = cell >>> 6;
+            long seed = 1L << cell;
+
+            for (int i = 0; i < wordCount; i++) {
+                free[i] = ~occupied.word(i) & valid[i];
+                region[i] = 0L;
+            }
+
+            boolean targetIsFree = (free[seedWord] & seed) != 0;
+
+            // the target is always part of the region, even when it is occupied
+            free[seedWord] |= seed;
+            region[seedWord] = seed;
+
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+
+                // sweeping both ways lets the region travel across the whole board in few iterations
+                for (int i = 0; i < wordCount; i++) {
+                    changed |= grow(i);
+                }
+
+                for (int i = wordCount - 1; i >= 0; i--) {
+                    changed |= grow(i);
+                }
+            }
+
+            int size = 0;
+            for (int i = 0; i < wordCount; i++) {
+                size += Long.bitCount(region[i]);
+            }
+
+            return size - (targetIsFree ? 0 : 1);
+        }
+
+        /**
+         * Computes the free cells connected to a given target cell
+         *
+         * @param occupied the board of occupied spots, it must have the same size as this flood fill
+         * @param cell the target cell. It might be an occupied spot, in which case it is not part of the region.
+         * @param connected the board the region is written to, it must have the same size as this flood fill
+         * @return the area of the region
+         */
+        public int connectedRegion(BitBoard occupied, int cell, BitBoard connected) {
+            int area = area(occupied, cell);
+
+            for (int i = 0; i < wordCount; i++) {
+                connected.setWord(i, region[i]);
+            }
+            if (occupied.get(cell)) {
+                connected.clear(cell);
+            }
+
+            return area;
+        }
+
+        private boolean grow(int i) {
+            long current = region[i];
+            long previous = i > 0 ? region[i - 1] : 0L;
+            long next = i < wordCount - 1 ? region[i + 1] : 0L;
+
+            long fromLeft = ((current << 1) | (previous >>> 63)) & notFirstColumn[i];
+            long fromRight = ((current >>> 1) | (next << 63)) & notLastColumn[i];
+            long fromAbove = (current << width) | (previous >>> (64 - width));
+            long fromBelow = (current >>> width) | (next << (64 - width));
+
+            long grown = (current | fromLeft | fromRight | fromAbove | fromBelow) & free[i];
+
+            if (grown == current) {
+                return false;
+            }
+
+            region[i] = grown;
+            return true;
+        }
+    }
+
+    /**
+     * Plays the endgame, once a light cycle is walled off from every opponent: the game then comes down to filling as
+     * many cells of its own region as possible, that is, to the longest path from its head.
+     * <p>
+     * The depth first search tries first the movements leaving the fewest exits, which tends to find long paths early.
+     * A path never beats the checkerboard parity bound of the region reachable from its head: movements alternate
+     * between both colours, so the path takes at most one more cell of the other colour than of the head's one.
+     * Branches whose bound does not beat the best path found are pruned, and a node is left as soon as its bound is
+     * reached. The longest path only depends on the head and the region it can reach, so exact lengths are memoized by
+     * region for the whole game.
+     * <p>
+     * The first movements share the node limit, so that a large region searched first cannot starve the others. Once
+     * a movement's share or the budget is exhausted, its search stops and the best path found so far is played.
+     */
+    public static final class EndgameSolver {
+
+        private static final ActionsType[] ACTIONS = ActionsType.values();
+        private static final int BUDGET_CHECK_MASK = 1023;
+
+        private final GridSize gridSize;
+        private final BitFloodFill floodFill;
+        private final long[] evenCells;
+        private final int nodeLimit;
+
+        // exact longest paths by region and head, kept from one turn to the next
+        private final long[] memoKeys;
+        private final int[] memoLengths;
+
+        // scratch memory, by depth
+        private final BitBoard occupied;
+        private final BitBoard[] regions;
+        private final int[][] children;
+
+        // state of the current search
+        private SearchBudget budget;
+        private ActionsType bestMove;
+        private int pathLength;
+        private long searchedNodes;
+        private long nodeDeadline;
+        private boolean aborted;
+        private boolean outOfBudget;
+        private boolean exact;
+
+        /**
+         * @param nodeLimit how many nodes a search may visit
+         * @param memoCapacity how many exact lengths are memoized at least, rounded up to a power of two
+         */
+        public EndgameSolver(GridSize gridSize, int nodeLimit, int memoCapacity) {
+            if (memoCapacity < 1 || memoCapacity > 1 << 30) {
+                throw new IllegalArgumentException("Unsupported capacity " + memoCapacity);
+            }
+
+            this.gridSize = gridSize;
+            this.floodFill = new BitFloodFill(gridSize);
+            this.nodeLimit = nodeLimit;
+
+            int size = memoCapacity == 1 ? 1 : Integer.highestOneBit(memoCapacity - 1) << 1;
+            this.memoKeys = new long[size];
+            this.memoLengths = new int[size];
+
+            int cells = gridSize.getCellsCount();
+            this.evenCells = new long[(cells + 63) >>> 6];
+            for (int cell = 0; cell < cells; cell++) {
+                if ((cell % gridSize.getMaxX() + cell / gridSize.getMaxX()) % 2 == 0) {
+                    evenCells[cell >>> 6] |= 1L << cell;
+                }
+            }
+
+            // a path never outgrows the arena, neither does the search
+            this.occupied = new BitBoard(gridSize);
+            this.regions = new BitBoard[cells + 1];
+            this.children = new int[cells + 1][ACTIONS.length];
+            for (int depth = 0; depth <= cells; depth++) {
+                regions[depth] = new BitBoard(gridSize);
+            }
+        }
+
+        /**
+         * @param grid the occupied cells
+         * @param cell the head of the light cycle
+         * @param opponentCells the heads of the other light cycles
+         * @return whether no opponent can reach any free cell the light cycle can reach
+         */
+        public boolean isSeparated(BitBoard grid, int cell, int[] opponentCells) {
+            floodFill.connectedRegion(grid, cell, regions[0]);
+
+            for (int opponentCell : opponentCells) {
+                for (ActionsType action : ACTIONS) {
+                    int next = gridSize.neighbour(opponentCell, action);
+                    if (next >= 0 && regions[0].get(next)) {
+                        return false;
+                    }
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * @param grid the occupied cells
+         * @param cell the head of the light cycle
+         * @param opponentCells the heads of the other light cycles
+         * @param budget how long the search may run, besides the node limit
+         * @return the first movement of the longest path found, null if the light cycle is not separated from its
+         *         opponents or cannot move
+         */
+        public ActionsType solve(BitBoard grid, int cell, int[] opponentCells, SearchBudget budget) {
+            this.budget = budget;
+            this.bestMove = null;
+            this.pathLength = 0;
+            this.searchedNodes = 0;
+            this.aborted = false;
+            this.outOfBudget = false;
+            this.exact = true;
+
+            if (!isSeparated(grid, cell, opponentCells)) {
+                return null;
+            }
+
+            occupied.copyFrom(grid);
+            pathLength = longest(cell, 0, parityBound(regions[0], cell));
+
+            return bestMove;
+        }
+
+        /**
+         * @param head the head of the path, the region it can reach is already computed at this depth
+         * @param bound how long the path may be at most
+         * @return the length of the longest path found, exact unless the search has been aborted
+         */
+        private int longest(int head, int depth, int bound) {
+            BitBoard region = regions[depth];
+
+            long key = memoKey(region, head);
+            int slot = (int) key & (memoKeys.length - 1);
+            if (depth > 0 && memoKeys[slot] == key) {
+                return memoLengths[slot];
+            }
+
+            searchedNodes++;
+            if ((searchedNodes & BUDGET_CHECK_MASK) == 0 && !budget.hasNext(0)) {
+                outOfBudget = true;
+            }
+            if (outOfBudget || depth > 0 && searchedNodes > nodeDeadline) {
+                aborted = true;
+                return 0;
+            }
+
+            // movements leaving the fewest exits first, the number of exits being packed above the movement
+            int[] moves = children[depth];
+            int count = 0;
+            for (ActionsType action : ACTIONS) {
+                int next = gridSize.neighbour(head, action);
+                if (next >= 0 && !occupied.get(next)) {
+                    moves[count++] = exits(next) << 2 | action.ordinal();
+                }
+            }
+            Arrays.sort(moves, 0, count);
+
+            int best = 0;
+            for (int i = 0; i < count && best < bound && !aborted; i++) {
+                if (depth == 0) {
+                    // the movements still to be searched share the remaining nodes
+                    nodeDeadline = searchedNodes + (nodeLimit - searchedNodes) / (count - i);
+                }
 
-                Spot startSpot = new Spot(X0, Y0);
-                Spot currentSpot = new Spot(X1, Y1);
+                ActionsType action = ACTIONS[moves[i] & 3];
+                int next = gridSize.neighbour(head, action);
 
-                if (battleField.hasLightCycleStartingAt(startSpot)) {
-                    battleField.moveTo(startSpot, currentSpot);
-                } else {
+                occupied.set(next);
+                floodFill.connectedRegion(occupied, next, regions[depth + 1]);
 
-                    if (i != P) {
-                        opponenetsStartSpots.add(startSpot);
-                    } else {
-                        playerStartSpot = startSpot;
+                int childBound = 1 + parityBound(regions[depth + 1], next);
+                if (childBound > best) {
+                    int length = 1 + longest(next, depth + 1, childBound - 1);
+                    if (length > best) {
+                        best = length;
+                        if (depth == 0) {
+                            bestMove = action;
+                        }
                     }
+                }
 
-                    battleField.addLightCycleAt(startSpot, currentSpot);
+                occupied.clear(next);
+
+                // a movement running out of its share leaves the others to be searched, unless time is up
+                if (depth == 0 && aborted) {
+                    exact = false;
+                    aborted = outOfBudget;
                 }
+            }
 
-                lightCyclesAlive.add(startSpot);
+            // the root is only exact when none of its movements ran out of nodes
+            if (!aborted && (depth > 0 || exact)) {
+                memoKeys[slot] = key;
+                memoLengths[slot] = best;
             }
 
-            Set<Spot> killedLightCycles = new HashSet<>(battleField.getLightCyclesStartingSpots());
-            killedLightCycles.removeAll(lightCyclesAlive);
+            return best;
+        }
 
-            battleField.killLightCycles(killedLightCycles);
+        private int exits(int cell) {
+            int exits = 0;
+            for (ActionsType action : ACTIONS) {
+                int next = gridSize.neighbour(cell, action);
+                if (next >= 0 && !occupied.get(next)) {
+                    exits++;
+                }
+            }
+            return exits;
         }
 
-        public int getN() {
-            return N;
+        /**
+         * @param region the free cells reachable from the head
+         * @return how long a path from the head through the region may be at most
+         */
+        int parityBound(BitBoard region, int head) {
+            boolean headIsEven = (evenCells[head >>> 6] & 1L << head) != 0;
+
+            int total = 0;
+            int sameColour = 0;
+            for (int i = 0; i < evenCells.length; i++) {
+                long word = region.word(i);
+                total += Long.bitCount(word);
+                sameColour += Long.bitCount(word & (headIsEven ? evenCells[i] : ~evenCells[i]));
+            }
+
+            // the path starts on the other colour, so it takes one more cell of it when it ends there
+            int otherColour = total - sameColour;
+            return otherColour > sameColour ? 2 * sameColour + 1 : 2 * otherColour;
         }
 
-        public int getP() {
-            return P;
+        private static long memoKey(BitBoard region, int head) {
+            long key = (head + 1) * 0x9E3779B97F4A7C15L;
+            for (int i = 0; i < region.wordCount(); i++) {
+                key = Long.rotateLeft(key ^ region.word(i), 29) * 0xBF58476D1CE4E5B9L;
+            }
+            return key ^ (key >>> 31);
         }
 
-        public BattleFieldSnapshot getBattleField() {
-            return battleField.getSnapshot();
+        /**
+         * @return the length of the longest path found by the last search
+         */
+        public int getPathLength() {
+            return pathLength;
         }
 
-        public Spot getPlayerLightCycleStartSpot() {
-            return playerStartSpot;
+        /**
+         * @return whether the last search went through, in which case its path is the longest one
+         */
+        public boolean isExact() {
+            return exact && !aborted;
         }
 
-        public Set<Spot> getOpponentLightCyclesStartSpot() {
-            return Collections.unmodifiableSet(opponenetsStartSpots);
+        /**
+         * @return how many nodes the last search has visited, memoized ones aside
+         */
+        public long getSearchedNodes() {
+            return searchedNodes;
         }
     }
 
-    public static final class BattleField {
-
-        private static final int MAX_X = 30;
-        private static final int MAX_Y = 20;
+    /**
+     * Grid occupancy packed into longs, one bit per cell. Cells are laid out row by row, that is, the cell (x, y) is
+     * the bit {@code y * width + x}; the 30x20 arena fits in ten words.
+     */
+    public static final class BitBoard {
 
-        private static final GridSize GRID_SIZE = new GridSize(MAX_X, MAX_Y);
+        private final int width;
+        private final int height;
+        private final long[] words;
 
-        private final Map<Spot, Spot> currentSpot;
-        private final Map<Spot, Set<Spot>> visitedSpots;
-        private final boolean[][] grid;
-        private int availableSpotsCnt;
+        public BitBoard(GridSize gridSize) {
+            this.width = gridSize.getMaxX();
+            this.height = gridSize.getMaxY();
+            this.words = new long[(width * height + 63) >>> 6];
+        }
 
-        public BattleField() {
-            this.grid = new boolean[MAX_Y][MAX_X];
-            this.currentSpot = new HashMap<>();
-            this.visitedSpots = new HashMap<>();
-            this.availableSpotsCnt = MAX_X * MAX_Y;
+        public BitBoard(BitBoard another) {
+            this.width = another.width;
+            this.height = another.height;
+            this.words = another.words.clone();
         }
 
-        public BattleField(BattleField another) {
-            this.availableSpotsCnt = another.availableSpotsCnt;
-            this.currentSpot = new HashMap<>(another.currentSpot);
-            this.visitedSpots = new HashMap<>(another.visitedSpots.size());
+        public boolean get(int x, int y) {
+            return get(y * width + x);
+        }
 
-            another.visitedSpots.forEach((key, value) -> this.visitedSpots.put(key, new HashSet<>(value)));
+        public void set(int x, int y) {
+            set(y * width + x);
+        }
 
-            this.grid = new boolean[another.grid.length][another.grid[0].length];
+        public void clear(int x, int y) {
+            clear(y * width + x);
+        }
 
-            int i = 0;
-            for (boolean[] row : another.grid) {
-                System.arraycopy(row, 0, grid[i++], 0, row.length);
-            }
+        public boolean get(int cell) {
+            return (words[cell >>> 6] & (1L << cell)) != 0;
         }
 
-        public Set<Spot> getLightCyclesStartingSpots() {
-            return currentSpot.keySet();
+        public void set(int cell) {
+            words[cell >>> 6] |= 1L << cell;
         }
 
-        public boolean hasLightCycleStartingAt(Spot startSpot) {
-            return currentSpot.containsKey(startSpot);
+        public void clear(int cell) {
+            words[cell >>> 6] &= ~(1L << cell);
         }
 
-        public void addLightCycleAt(Spot startSpot, Spot currentSpot) {
+        /**
+         * Overwrites this board with the content of another one of the same size
+         */
+        public void copyFrom(BitBoard another) {
+            System.arraycopy(another.words, 0, words, 0, words.length);
+        }
 
-            if (!startSpot.equals(currentSpot) && !startSpot.isNeighborOf(currentSpot)) {
-                throw new IllegalStateException(
-                        "Cannot add non-neighbors spots start=" + startSpot +
-                                ", current=" + currentSpot);
+        public void or(BitBoard another) {
+            for (int i = 0; i < words.length; i++) {
+                words[i] |= another.words[i];
             }
+        }
 
-            this.currentSpot.put(startSpot, currentSpot);
-
-            Set<Spot> visitedSpots = new HashSet<>(256);
-            visitedSpots.add(startSpot);
-            visitedSpots.add(currentSpot);
-
-            this.visitedSpots.put(startSpot, visitedSpots);
-
-            grid[startSpot.getY()][startSpot.getX()] = true;
-            availableSpotsCnt--;
-            if (!startSpot.equals(currentSpot)) {
-                grid[currentSpot.getY()][currentSpot.getX()] = true;
-                availableSpotsCnt--;
+        public void andNot(BitBoard another) {
+            for (int i = 0; i < words.length; i++) {
+                words[i] &= ~another.words[i];
             }
         }
 
-        public void moveTo(Spot startSpot, Spot currentSpot) {
-            Spot past = this.currentSpot.get(startSpot);
-
-            if (past == null || !past.isNeighborOf(currentSpot)) {
-                throw new IllegalStateException("Cannot move from " + past + " to " + currentSpot);
+        /**
+         * @return the first occupied cell at or after the given one, -1 if there is none
+         */
+        public int nextSetBit(int fromCell) {
+            int i = fromCell >>> 6;
+            if (i >= words.length) {
+                return -1;
             }
 
-            this.currentSpot.put(startSpot, currentSpot);
-            visitedSpots.get(startSpot).add(currentSpot);
-
-            grid[currentSpot.getY()][currentSpot.getX()] = true;
-            availableSpotsCnt--;
-        }
-
-        public Spot getCurrentSpot(Spot startSpot) {
-            return currentSpot.get(startSpot);
-        }
+            long word = words[i] & (-1L << fromCell);
+            while (word == 0) {
+                if (++i == words.length) {
+                    return -1;
+                }
+                word = words[i];
+            }
 
-        public boolean hasBeenVisited(int x, int y) {
-            return grid[y][x];
+            return (i << 6) + Long.numberOfTrailingZeros(word);
         }
 
-        public GridSize getGridSize() {
-            return GRID_SIZE;
+        /**
+         * @return the number of occupied cells
+         */
+        public int cardinality() {
+            int count = 0;
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+            return count;
         }
 
-        public boolean hasBeenVisited(Spot spot) {
-            return hasBeenVisited(spot.getX(), spot.getY());
+        public int getWidth() {
+            return width;
         }
 
-        public Set<Spot> getStartSpots() {
-            return currentSpot.keySet();
+        public int getHeight() {
+            return height;
         }
 
-        public void killLightCycles(Set<Spot> startSpots) {
-
-            for (Spot startSpot : startSpots) {
-                currentSpot.remove(startSpot);
-
-                Set<Spot> spots = visitedSpots.remove(startSpot);
-                for (Spot spot : spots) {
-                    grid[spot.getY()][spot.getX()] = false;
-                    availableSpotsCnt++;
-                }
-            }
+        long word(int index) {
+            return words[index];
         }
 
-        public int getAvailableSpotsCount() {
-            return availableSpotsCnt;
+        void setWord(int index, long word) {
+            words[index] = word;
         }
 
-        public BattleFieldSnapshot getSnapshot() {
-            return new BattleFieldSnapshot(this);
+        int wordCount() {
+            return words.length;
         }
 
         @Override
@@ -797,61 +4602,71 @@ final class Player {
                 return false;
             }
 
-            BattleField that = (BattleField) o;
-            return Arrays.deepEquals(grid, that.grid) &&
-                    Objects.equals(currentSpot, that.currentSpot) &&
-                    Objects.equals(visitedSpots, that.visitedSpots);
+            BitBoard that = (BitBoard) o;
+            return width == that.width && Arrays.equals(words, that.words);
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(grid, currentSpot, visitedSpots);
+            return 31 * width + Arrays.hashCode(words);
         }
     }
 
-    public static final class BattleFieldSnapshot {
+    /**
+     * A position in the grid. Spots within the arena are flyweights: {@link #of(int, int)} returns a canonical,
+     * preallocated instance whose neighbours are precomputed, so moving around the arena never allocates.
+     */
+    public static final class Spot {
 
-        private final BattleField battleField;
+        private static final int MAX_X = 30;
+        private static final int MAX_Y = 20;
 
-        public BattleFieldSnapshot(BattleField battleField) {
+        private static final Spot[] SPOTS = new Spot[MAX_X * MAX_Y];
 
-            // In order to optimize, we won't be copying the arena's state,
-            // and therefore after each round the snapshot is deprecated
-            this.battleField = battleField;
-        }
+        /**
+         * Where every movement that leaves the arena ends up
+         */
+        public static final Spot OUTSIDE = new Spot(-1, -1);
 
-        public Set<Spot> getStartSpots() {
-            return battleField.getStartSpots();
-        }
+        static {
+            for (int y = 0; y < MAX_Y; y++) {
+                for (int x = 0; x < MAX_X; x++) {
+                    SPOTS[y * MAX_X + x] = new Spot(x, y, new Spot[ActionsType.values().length]);
+                }
+            }
 
-        public Spot getCurrentSpot(Spot startSpot) {
-            return battleField.getCurrentSpot(startSpot);
+            for (Spot spot : SPOTS) {
+                for (ActionsType type : ActionsType.values()) {
+                    spot.neighbours[type.ordinal()] = of(spot.x + type.getDeltaX(), spot.y + type.getDeltaY());
+                }
+            }
         }
 
-        public boolean hasBeenVisited(int x, int y) {
-            return battleField.hasBeenVisited(x, y);
-        }
+        private final int x;
+        private final int y;
 
-        public GridSize getGridSize() {
-            return battleField.getGridSize();
-        }
+        // only set for canonical spots
+        private final Spot[] neighbours;
 
-        public int getAvailableSpotsCount() {
-            return battleField.getAvailableSpotsCount();
+        public Spot(int x, int y) {
+            this(x, y, null);
         }
 
-        public boolean hasBeenVisited(Spot spot) {
-            return battleField.hasBeenVisited(spot);
+        private Spot(int x, int y, Spot[] neighbours) {
+            this.x = x;
+            this.y = y;
+            this.neighbours = neighbours;
         }
-    }
 
-    public static final class Spot {
-        private final int x;
-        private final int y;
+        /**
+         * @return the canonical instance for spots within the arena, {@link #OUTSIDE} otherwise
+         */
+        public static Spot of(int x, int y) {
+            if (x < 0 || x >= MAX_X || y < 0 || y >= MAX_Y) {
+                return OUTSIDE;
+            }
 
-        public Spot(int x, int y) {
-            this.x = x;
-            this.y = y;
+            return SPOTS[y * MAX_X + x];
         }
 
         public int getX() {
@@ -869,23 +4684,32 @@ final class Player {
                     (x == spot.x && y + 1 == spot.y);
         }
 
+        /**
+         * @return the movement leading from this spot to the given neighbour
+         */
+        public ActionsType directionTo(Spot neighbour) {
+            for (ActionsType type : ActionsType.values()) {
+                if (x + type.getDeltaX() == neighbour.x && y + type.getDeltaY() == neighbour.y) {
+                    return type;
+                }
+            }
+
+            throw new IllegalArgumentException(neighbour + " is not a neighbour of " + this);
+        }
+
         public double squareDistTo(Spot another) {
             return (x - another.x) * (x - another.x) + (y - another.y) * (y - another.y);
         }
 
+        /**
+         * @return the neighbour spot in the given direction, or {@link #OUTSIDE} if it falls out of the arena
+         */
         public Spot next(ActionsType type) {
-            switch (type) {
-            case UP:
-                return new Spot(x, y - 1);
-            case DOWN:
-                return new Spot(x, y + 1);
-            case LEFT:
-                return new Spot(x - 1, y);
-            case RIGHT:
-                return new Spot(x + 1, y);
-            default:
-                throw new IllegalStateException("Unknown action type " + type);
+            if (neighbours != null) {
+                return neighbours[type.ordinal()];
             }
+
+            return of(x + type.getDeltaX(), y + type.getDeltaY());
         }
 
         @Override
@@ -903,7 +4727,7 @@ final class Player {
 
         @Override
         public int hashCode() {
-            return Objects.hash(x, y);
+            return 31 * x + y;
         }
 
         @Override
@@ -913,7 +4737,70 @@ final class Player {
     }
 
     public enum ActionsType {
-        UP, DOWN, LEFT, RIGHT
+        UP(0, -1), DOWN(0, 1), LEFT(-1, 0), RIGHT(1, 0);
+
+        private final int deltaX;
+        private final int deltaY;
+
+        ActionsType(int deltaX, int deltaY) {
+            this.deltaX = deltaX;
+            this.deltaY = deltaY;
+        }
+
+        public int getDeltaX() {
+            return deltaX;
+        }
+
+        public int getDeltaY() {
+            return deltaY;
+        }
+
+        public ActionsType turnLeft() {
+            switch (this) {
+                case UP:
+                    return LEFT;
+                case LEFT:
+                    return DOWN;
+                case DOWN:
+                    return RIGHT;
+                default:
+                    return UP;
+            }
+        }
+
+        public ActionsType turnRight() {
+            switch (this) {
+                case UP:
+                    return RIGHT;
+                case RIGHT:
+                    return DOWN;
+                case DOWN:
+                    return LEFT;
+                default:
+                    return UP;
+            }
+        }
+    }
+
+    /**
+     * A movement relative to a light cycle's heading. None of them leads back to the spot the cycle comes from.
+     */
+    public enum Turn {
+        STRAIGHT, LEFT, RIGHT;
+
+        /**
+         * @return the movement this turn makes when heading in the given direction
+         */
+        public ActionsType apply(ActionsType heading) {
+            switch (this) {
+                case LEFT:
+                    return heading.turnLeft();
+                case RIGHT:
+                    return heading.turnRight();
+                default:
+                    return heading;
+            }
+        }
     }
 
     /**
@@ -962,7 +4849,7 @@ final class Player {
         }
     }
 
-    public static abstract class AI {
+    public static abstract class AI implements AutoCloseable {
 
         private final RepositoryUpdater updater;
 
@@ -981,6 +4868,14 @@ final class Player {
             updater.update();
         }
 
+        /**
+         * Releases the threads the AI searches with, if any. The AI may not play anymore afterwards.
+         */
+        @Override
+        public void close() {
+            // nothing to release by default
+        }
+
         @Override
         public final boolean equals(Object o) {
             return this == o || !(o == null || getClass() != o.getClass());
@@ -1015,16 +4910,80 @@ final class Player {
     }
 
     public interface EvaluationFunction {
+
+        /**
+         * The cutoff asking for an exact score
+         */
+        double NO_CUTOFF = Double.NEGATIVE_INFINITY;
+
         double evaluate(TronSimulator engine, Spot startAt, ActionsType[] actions);
+
+        /**
+         * Scores a plan that only matters if it reaches a given score. Once the function knows the plan scores below
+         * the cutoff, it may stop and return a lower bound of the exact score, below the cutoff, so that an abandoned
+         * plan never outranks a plan it does not beat. Functions unable to tell score the plan exactly.
+         *
+         * @param cutoff the score to beat, {@link #NO_CUTOFF} to get an exact score
+         */
+        default double evaluate(TronSimulator engine, Spot startAt, ActionsType[] actions, double cutoff) {
+            return evaluate(engine, startAt, actions);
+        }
+    }
+
+    /**
+     * Scores the positions at the horizon of a two player search
+     */
+    public interface LeafEvaluation {
+
+        /**
+         * @param player the simulator index of the player
+         * @param opponent the simulator index of its opponent, -1 if the player is alone
+         * @return how good the position is for the player, between -1 and 1
+         */
+        double evaluate(TronSimulator engine, int player, int opponent);
+    }
+
+    /**
+     * An evaluation function that takes the cutoff into account: only the cutoff-aware evaluation has to be
+     * implemented, exact scores being asked with {@link #NO_CUTOFF}.
+     */
+    public interface CutoffEvaluationFunction extends EvaluationFunction {
+
+        @Override
+        default double evaluate(TronSimulator engine, Spot startAt, ActionsType[] actions) {
+            return evaluate(engine, startAt, actions, NO_CUTOFF);
+        }
+
+        @Override
+        double evaluate(TronSimulator engine, Spot startAt, ActionsType[] actions, double cutoff);
     }
 
+    /**
+     * Grid dimensions. Besides coordinates, each spot of the grid can be addressed by a dense cell index
+     * {@code y * maxX + x}, whose neighbours are precomputed.
+     */
     public static class GridSize {
         private final int maxX;
         private final int maxY;
 
+        // neighbour cell of each cell by action (four per cell), -1 if it falls out of the grid
+        private final int[] neighbours;
+
         public GridSize(int maxX, int maxY) {
             this.maxX = maxX;
             this.maxY = maxY;
+
+            this.neighbours = new int[(maxX * maxY) << 2];
+            for (int y = 0; y < maxY; y++) {
+                for (int x = 0; x < maxX; x++) {
+                    for (ActionsType type : ActionsType.values()) {
+                        int nextX = x + type.getDeltaX();
+                        int nextY = y + type.getDeltaY();
+                        neighbours[((y * maxX + x) << 2) + type.ordinal()] =
+                                isWithinGrid(nextX, nextY) ? nextY * maxX + nextX : -1;
+                    }
+                }
+            }
         }
 
         public int getMaxX() {
@@ -1035,6 +4994,10 @@ final class Player {
             return maxY;
         }
 
+        public int getCellsCount() {
+            return maxX * maxY;
+        }
+
         public boolean isWithinGrid(int x, int y) {
             return x >= 0 && x < maxX && y >= 0 && y < maxY;
         }
@@ -1042,9 +5005,32 @@ final class Player {
         public boolean isWithinGrid(Spot spot) {
             return isWithinGrid(spot.getX(), spot.getY());
         }
+
+        public int cellOf(int x, int y) {
+            return y * maxX + x;
+        }
+
+        public int cellOf(Spot spot) {
+            return cellOf(spot.getX(), spot.getY());
+        }
+
+        public Spot spotOf(int cell) {
+            return Spot.of(cell % maxX, cell / maxX);
+        }
+
+        /**
+         * @return the neighbour cell in the given direction, or -1 if it falls out of the grid
+         */
+        public int neighbour(int cell, ActionsType type) {
+            return neighbours[(cell << 2) + type.ordinal()];
+        }
     }
 
     public interface AvailableSpot {
         boolean evaluate(Spot spot);
     }
+
+    public interface AvailableCell {
+        boolean evaluate(int cell);
+    }
 }
@@ -1,5 +1,4 @@
 import java.util.List;
-import java.util.Random;
 
 /**
  * Dumbest AI possible: it does random movements considering all available possibilities
@@ -7,17 +6,24 @@ import java.util.Random;
 class RandomAI extends Player.AI {
 
     private final KnowledgeRepo repo;
+    private final Player.RandomGenerator random;
 
     public RandomAI(KnowledgeRepo knowledgeRepo) {
+        this(knowledgeRepo, new Player.SplitMixRandom());
+    }
+
+    /**
+     * @param random drives every movement, a seeded generator always leads to the same movements
+     */
+    public RandomAI(KnowledgeRepo knowledgeRepo, Player.RandomGenerator random) {
         super(knowledgeRepo::update);
         this.repo = knowledgeRepo;
+        this.random = random;
     }
 
     @Override
     public Player.Action[] play() {
 
-        Random random = new Random();
-
         List<Player.ActionsType> possibleActions = repo.getPossibleActions();
 
         if (possibleActions.size() == 0) {
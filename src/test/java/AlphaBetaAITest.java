@@ -0,0 +1,138 @@
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("The alpha-beta AI")
+class AlphaBetaAITest implements WithAssertions {
+
+    @Test
+    @DisplayName("does not move into a dead end")
+    void doesNotMoveIntoADeadEnd() {
+        // the player went down then right, the opponent went right from (2, 0): (1, 0) is a dead end
+        Queue<Integer> input = new ArrayDeque<>();
+        Player.AlphaBetaAI ai = new Player.AlphaBetaAI(
+                new Player.InputRepository(input::remove),
+                new Player.GenerationsBudget(2),
+                new Player.VoronoiEvaluation());
+
+        feed(input, 2, 0, 0, 0, 0, 0, 2, 0, 2, 0);
+        ai.updateRepository();
+        feed(input, 2, 0, 0, 0, 0, 1, 2, 0, 3, 0);
+        ai.updateRepository();
+        feed(input, 2, 0, 0, 0, 1, 1, 2, 0, 4, 0);
+        ai.updateRepository();
+
+        assertThat(ai.play()[0].getType()).isNotEqualTo(Player.ActionsType.UP);
+    }
+
+    @Test
+    @DisplayName("searches one more turn for each generation of its budget")
+    void searchesOneMoreTurnPerGeneration() {
+        Queue<Integer> input = new ArrayDeque<>();
+        Player.AlphaBetaAI ai = new Player.AlphaBetaAI(
+                new Player.InputRepository(input::remove),
+                new Player.GenerationsBudget(3),
+                new Player.VoronoiEvaluation());
+
+        feed(input, 2, 0, 3, 3, 3, 3, 20, 10, 20, 10);
+        ai.updateRepository();
+        ai.play();
+
+        assertThat(ai.getCompletedDepth()).isEqualTo(3);
+        assertThat(ai.getSearchedNodes()).isGreaterThan(0);
+    }
+
+    @Test
+    @DisplayName("searches fewer positions with a transposition table")
+    void searchesFewerPositionsWithATranspositionTable() {
+        Player.AlphaBetaAI withoutTable = onOpenArena(new Player.TranspositionTable(2));
+        Player.AlphaBetaAI withTable = onOpenArena(new Player.TranspositionTable(1 << 16));
+
+        withoutTable.play();
+        withTable.play();
+
+        assertThat(withTable.getCompletedDepth()).isEqualTo(withoutTable.getCompletedDepth());
+        assertThat(withTable.getSearchedNodes()).isLessThan(withoutTable.getSearchedNodes());
+    }
+
+    @Test
+    @DisplayName("plays the last completed depth once its deadline has passed")
+    void playsTheLastCompletedDepth() {
+        // every clock reading takes 1ms
+        AtomicLong clock = new AtomicLong();
+        Player.TimeBudget budget = new Player.TimeBudget(10, 3,
+                () -> clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1)));
+
+        Queue<Integer> input = new ArrayDeque<>();
+        Player.AlphaBetaAI ai = new Player.AlphaBetaAI(
+                new Player.InputRepository(input::remove), budget, new Player.VoronoiEvaluation());
+
+        feed(input, 2, 0, 3, 3, 3, 3, 20, 10, 20, 10);
+        ai.updateRepository();
+        Player.ActionsType move = ai.play()[0].getType();
+
+        assertThat(ai.getCompletedDepth()).isBetween(1, 9);
+        assertThat(new Player.Spot(3, 3).next(move)).isNotEqualTo(new Player.Spot(3, 3));
+    }
+
+    @Test
+    @DisplayName("scores symmetric positions as even")
+    void scoresSymmetricPositionsAsEven() {
+        Player.BattleField battleField = new Player.BattleField();
+        battleField.addLightCycleAt(new Player.Spot(0, 0), new Player.Spot(0, 0));
+        battleField.addLightCycleAt(new Player.Spot(29, 19), new Player.Spot(29, 19));
+
+        Player.TronSimulator simulator = new Player.TronSimulator(battleField.getSnapshot());
+        int player = simulator.playerIndex(new Player.Spot(0, 0));
+        int opponent = simulator.playerIndex(new Player.Spot(29, 19));
+
+        assertThat(new Player.VoronoiEvaluation().evaluate(simulator, player, opponent)).isEqualTo(0.0);
+    }
+
+    @Test
+    @DisplayName("scores separated light cycles by their areas")
+    void scoresSeparatedLightCyclesByTheirAreas() {
+        // the opponent walled the first ten columns off
+        Player.Spot opponentStart = new Player.Spot(10, 0);
+        Player.BattleField battleField = new Player.BattleField();
+        battleField.addLightCycleAt(new Player.Spot(2, 2), new Player.Spot(2, 2));
+        battleField.addLightCycleAt(opponentStart, opponentStart);
+        for (int y = 1; y < 20; y++) {
+            battleField.moveTo(opponentStart, new Player.Spot(10, y));
+        }
+        battleField.moveTo(opponentStart, new Player.Spot(11, 19));
+
+        Player.TronSimulator simulator = new Player.TronSimulator(battleField.getSnapshot());
+        int player = simulator.playerIndex(new Player.Spot(2, 2));
+        int opponent = simulator.playerIndex(opponentStart);
+
+        double score = new Player.VoronoiEvaluation().evaluate(simulator, player, opponent);
+
+        assertThat(score).isEqualTo(Player.AlphaBetaAI.areaDifference(simulator, player, opponent));
+        assertThat(score).isLessThan(0.0);
+    }
+
+    private static Player.AlphaBetaAI onOpenArena(Player.TranspositionTable table) {
+        Queue<Integer> input = new ArrayDeque<>();
+        Player.AlphaBetaAI ai = new Player.AlphaBetaAI(
+                new Player.InputRepository(input::remove),
+                new Player.GenerationsBudget(4),
+                new Player.VoronoiEvaluation(),
+                table);
+
+        feed(input, 2, 0, 3, 3, 3, 3, 20, 10, 20, 10);
+        ai.updateRepository();
+        return ai;
+    }
+
+    private static void feed(Queue<Integer> input, int... values) {
+        for (int value : values) {
+            input.add(value);
+        }
+    }
+}
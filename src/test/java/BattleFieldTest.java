@@ -65,6 +65,80 @@ class BattleFieldTest implements WithAssertions {
         assertThat(battleField.getAvailableSpotsCount()).isEqualTo(gridSize.getMaxX() * gridSize.getMaxY() - 4);
     }
 
+    @Test
+    @DisplayName("identifies positions by their zobrist key")
+    void identifiesPositionsByTheirZobristKey() {
+        Player.Spot playerStartSpot = new Player.Spot(0, 0);
+        Player.Spot opponentStartSpot = new Player.Spot(15, 10);
+
+        BattleFieldHelper battleField = new BattleFieldHelper(new Player.BattleField());
+        battleField.addLightCycleAt(opponentStartSpot, opponentStartSpot);
+        long opponentOnly = battleField.getHash();
+
+        battleField.addLightCycleAt(playerStartSpot, playerStartSpot);
+        long beforeMoving = battleField.getHash();
+        assertThat(beforeMoving).isNotEqualTo(opponentOnly);
+
+        battleField.moveTo(playerStartSpot, Player.ActionsType.RIGHT);
+        assertThat(battleField.getHash()).isNotEqualTo(beforeMoving);
+
+        Player.BattleField copy = new Player.BattleField(battleField.battleField);
+        assertThat(copy.getHash()).isEqualTo(battleField.getHash());
+        assertThat(copy).isEqualTo(battleField.battleField);
+
+        battleField.killLightCycles(playerStartSpot);
+        assertThat(battleField.getHash()).isEqualTo(opponentOnly);
+    }
+
+    @Test
+    @DisplayName("shares zobrist keys with the simulator")
+    void sharesZobristKeysWithTheSimulator() {
+        Player.Spot playerStartSpot = new Player.Spot(3, 3);
+        Player.Spot opponentStartSpot = new Player.Spot(15, 10);
+
+        BattleFieldHelper battleField = new BattleFieldHelper(new Player.BattleField());
+        battleField.addLightCycleAt(playerStartSpot, playerStartSpot);
+        battleField.addLightCycleAt(opponentStartSpot, opponentStartSpot);
+
+        Player.TronSimulator simulator = new Player.TronSimulator(battleField.battleField.getSnapshot());
+        long initial = simulator.getHash();
+
+        simulator.perform(playerStartSpot, Player.ActionsType.DOWN);
+        simulator.perform(opponentStartSpot, Player.ActionsType.LEFT);
+        simulator.perform(playerStartSpot, Player.ActionsType.RIGHT);
+
+        Player.BattleField expected = new Player.BattleField(battleField.battleField);
+        expected.moveTo(playerStartSpot, new Player.Spot(3, 4));
+        expected.moveTo(opponentStartSpot, new Player.Spot(14, 10));
+        expected.moveTo(playerStartSpot, new Player.Spot(4, 4));
+
+        assertThat(simulator.getHash()).isEqualTo(expected.getHash());
+
+        simulator.reset();
+        assertThat(simulator.getHash()).isEqualTo(initial);
+    }
+
+    @Test
+    @DisplayName("keeps track of light cycles' heading")
+    void keepsTrackOfHeadings() {
+        Player.Spot playerStartSpot = new Player.Spot(3, 3);
+        Player.Spot opponentStartSpot = new Player.Spot(15, 10);
+
+        BattleFieldHelper battleField = new BattleFieldHelper(new Player.BattleField());
+        battleField.addLightCycleAt(playerStartSpot, playerStartSpot);
+        battleField.addLightCycleAt(opponentStartSpot, opponentStartSpot.next(Player.ActionsType.UP));
+
+        // a light cycle that has not moved yet heads towards the centre
+        assertThat(battleField.battleField.getHeading(playerStartSpot)).isEqualTo(Player.ActionsType.RIGHT);
+        assertThat(battleField.battleField.getHeading(opponentStartSpot)).isEqualTo(Player.ActionsType.UP);
+
+        battleField.moveTo(playerStartSpot, Player.ActionsType.DOWN);
+        assertThat(battleField.battleField.getHeading(playerStartSpot)).isEqualTo(Player.ActionsType.DOWN);
+
+        Player.TronSimulator simulator = new Player.TronSimulator(battleField.battleField.getSnapshot());
+        assertThat(simulator.getHeading(simulator.playerIndex(playerStartSpot))).isEqualTo(Player.ActionsType.DOWN);
+    }
+
     private static class BattleFieldHelper {
 
         private final Player.BattleField battleField;
@@ -89,6 +163,10 @@ class BattleFieldTest implements WithAssertions {
             return battleField.getAvailableSpotsCount();
         }
 
+        public long getHash() {
+            return battleField.getHash();
+        }
+
         public void killLightCycles(Player.Spot spot, Player.Spot... spots) {
             Set<Player.Spot> all = Stream.concat(Stream.of(spot), Arrays.stream(spots))
                     .collect(Collectors.toSet());
@@ -0,0 +1,63 @@
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("A bit board")
+class BitBoardTest implements WithAssertions {
+
+    private static final Player.GridSize ARENA = new Player.GridSize(30, 20);
+
+    @Test
+    @DisplayName("keeps track of every cell of the arena independently")
+    void keepsTrackOfEveryCell() {
+        Player.BitBoard board = new Player.BitBoard(ARENA);
+
+        for (int y = 0; y < ARENA.getMaxY(); y++) {
+            for (int x = 0; x < ARENA.getMaxX(); x++) {
+                assertThat(board.get(x, y)).isFalse();
+                board.set(x, y);
+                assertThat(board.get(x, y)).isTrue();
+                assertThat(board.cardinality()).isEqualTo(y * ARENA.getMaxX() + x + 1);
+            }
+        }
+
+        board.clear(29, 19);
+        assertThat(board.get(29, 19)).isFalse();
+        assertThat(board.cardinality()).isEqualTo(ARENA.getMaxX() * ARENA.getMaxY() - 1);
+    }
+
+    @Test
+    @DisplayName("copies are independent from the original")
+    void copiesAreIndependent() {
+        Player.BitBoard board = new Player.BitBoard(ARENA);
+        board.set(3, 4);
+
+        Player.BitBoard copy = new Player.BitBoard(board);
+        copy.set(5, 6);
+
+        assertThat(board.get(5, 6)).isFalse();
+        assertThat(copy.get(3, 4)).isTrue();
+        assertThat(copy).isNotEqualTo(board);
+
+        board.copyFrom(copy);
+        assertThat(copy).isEqualTo(board);
+    }
+
+    @Test
+    @DisplayName("removes a trail from the occupancy")
+    void removesATrail() {
+        Player.BitBoard board = new Player.BitBoard(ARENA);
+        Player.BitBoard trail = new Player.BitBoard(ARENA);
+
+        board.set(0, 0);
+        board.set(1, 0);
+        board.set(10, 10);
+        trail.set(0, 0);
+        trail.set(1, 0);
+
+        board.andNot(trail);
+
+        assertThat(board.cardinality()).isEqualTo(1);
+        assertThat(board.get(10, 10)).isTrue();
+    }
+}
@@ -0,0 +1,137 @@
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("A chromosome")
+class ChromosomeTest implements WithAssertions {
+
+    private static final Player.Spot START_AT = new Player.Spot(5, 5);
+    private static final Player.EvaluationFunction NO_EVALUATION = (engine, startAt, actions) -> 0.0;
+
+    @Test
+    @DisplayName("keeps its genes once packed")
+    void keepsItsGenes() {
+        Player.ActionsType[] genes = randomGenes(new Player.SplitMixRandom(1), 70);
+
+        Player.Chromosome chromosome =
+                new Player.Chromosome(genes, NO_EVALUATION, START_AT, new Player.SplitMixRandom(1));
+
+        assertThat(chromosome.getGenes()).containsExactly(genes);
+    }
+
+    @Test
+    @DisplayName("exchanges genes around a pivot on cross over")
+    void exchangesGenesOnCrossOver() {
+        Player.RandomGenerator random = new Player.SplitMixRandom(3);
+
+        for (int round = 0; round < 100; round++) {
+            Player.ActionsType[] first = randomGenes(random, 64);
+            Player.ActionsType[] second = randomGenes(random, 64);
+
+            Player.Chromosome[] children = new Player.Chromosome(first, NO_EVALUATION, START_AT, random)
+                    .crossOver(new Player.Chromosome(second, NO_EVALUATION, START_AT, random));
+
+            Player.ActionsType[] child1 = children[0].getGenes();
+            Player.ActionsType[] child2 = children[1].getGenes();
+
+            int pivot = 0;
+            while (pivot < first.length && child1[pivot] == first[pivot] && child2[pivot] == second[pivot]) {
+                pivot++;
+            }
+
+            for (int i = pivot; i < first.length; i++) {
+                assertThat(child1[i]).isEqualTo(second[i]);
+                assertThat(child2[i]).isEqualTo(first[i]);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("changes exactly one gene on mutation")
+    void changesExactlyOneGeneOnMutation() {
+        Player.RandomGenerator random = new Player.SplitMixRandom(5);
+
+        for (int round = 0; round < 100; round++) {
+            Player.ActionsType[] genes = randomGenes(random, 64);
+
+            Player.ActionsType[] mutated =
+                    new Player.Chromosome(genes, NO_EVALUATION, START_AT, random).mutate().getGenes();
+
+            int changes = 0;
+            for (int i = 0; i < genes.length; i++) {
+                if (genes[i] != mutated[i]) {
+                    changes++;
+                }
+            }
+
+            assertThat(changes).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("moves one gene forward on shift")
+    void movesOneGeneForwardOnShift() {
+        Player.ActionsType[] genes = randomGenes(new Player.SplitMixRandom(7), 40);
+
+        Player.ActionsType[] shifted = new Player.Chromosome(
+                genes, NO_EVALUATION, START_AT, new Player.SplitMixRandom(7))
+                .shift()
+                .getGenes();
+
+        for (int i = 0; i < genes.length - 1; i++) {
+            assertThat(shifted[i]).isEqualTo(genes[i + 1]);
+        }
+    }
+
+    @Test
+    @DisplayName("never reverses into its own trail when encoded as relative turns")
+    void neverReversesWhenRelative() {
+        Player.RandomGenerator random = new Player.SplitMixRandom(9);
+
+        for (int round = 0; round < 100; round++) {
+            Player.Chromosome chromosome = Player.Chromosome.random(
+                    70, Player.GeneEncoding.RELATIVE, NO_EVALUATION, START_AT, random);
+
+            if (round % 2 == 1) {
+                chromosome = chromosome.mutate().shift();
+            }
+
+            Player.ActionsType[] movements = new Player.ActionsType[70];
+            chromosome.decode(Player.ActionsType.UP, movements);
+
+            assertThat(movements[0]).isNotEqualTo(Player.ActionsType.DOWN);
+            for (int i = 1; i < movements.length; i++) {
+                assertThat(isReversal(movements[i - 1], movements[i])).isFalse();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("decodes relative turns from the heading")
+    void decodesRelativeTurns() {
+        Player.Turn[] turns = { Player.Turn.STRAIGHT, Player.Turn.LEFT, Player.Turn.LEFT, Player.Turn.RIGHT };
+
+        Player.Chromosome chromosome =
+                new Player.Chromosome(turns, NO_EVALUATION, START_AT, new Player.SplitMixRandom(1));
+        Player.ActionsType[] movements = new Player.ActionsType[turns.length];
+        chromosome.decode(Player.ActionsType.RIGHT, movements);
+
+        assertThat(chromosome.getTurns()).containsExactly(turns);
+        assertThat(movements).containsExactly(
+                Player.ActionsType.RIGHT, Player.ActionsType.UP, Player.ActionsType.LEFT, Player.ActionsType.UP);
+    }
+
+    private static boolean isReversal(Player.ActionsType previous, Player.ActionsType next) {
+        return previous.getDeltaX() + next.getDeltaX() == 0 && previous.getDeltaY() + next.getDeltaY() == 0;
+    }
+
+    private static Player.ActionsType[] randomGenes(Player.RandomGenerator random, int length) {
+        Player.ActionsType[] actions = Player.ActionsType.values();
+        Player.ActionsType[] genes = new Player.ActionsType[length];
+        for (int i = 0; i < length; i++) {
+            genes[i] = actions[random.nextInt(actions.length)];
+        }
+        return genes;
+    }
+}
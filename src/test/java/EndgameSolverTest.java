@@ -0,0 +1,128 @@
+import java.util.Random;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("The endgame solver")
+class EndgameSolverTest implements WithAssertions {
+
+    private static final int[] NO_OPPONENT = {};
+
+    @Test
+    @DisplayName("does not play while an opponent can reach the same region")
+    void doesNotPlayUntilSeparated() {
+        Player.GridSize gridSize = new Player.GridSize(30, 20);
+        Player.BitBoard occupied = new Player.BitBoard(gridSize);
+        occupied.set(3, 3);
+        occupied.set(20, 10);
+
+        Player.EndgameSolver solver = new Player.EndgameSolver(gridSize, 1000, 64);
+        int[] opponentCells = { gridSize.cellOf(20, 10) };
+
+        assertThat(solver.isSeparated(occupied, gridSize.cellOf(3, 3), opponentCells)).isFalse();
+        assertThat(solver.solve(occupied, gridSize.cellOf(3, 3), opponentCells, new Player.GenerationsBudget(1)))
+                .isNull();
+    }
+
+    @Test
+    @DisplayName("finds the longest path on small random arenas")
+    void findsTheLongestPath() {
+        Random random = new Random(42);
+        Player.GridSize gridSize = new Player.GridSize(6, 5);
+        Player.EndgameSolver solver = new Player.EndgameSolver(gridSize, Integer.MAX_VALUE, 1 << 10);
+        Player.BitFloodFill floodFill = new Player.BitFloodFill(gridSize);
+
+        for (int round = 0; round < 100; round++) {
+            Player.BitBoard occupied = new Player.BitBoard(gridSize);
+            double density = random.nextDouble() * .4;
+            for (int cell = 0; cell < gridSize.getCellsCount(); cell++) {
+                if (random.nextDouble() < density) {
+                    occupied.set(cell);
+                }
+            }
+
+            int head = random.nextInt(gridSize.getCellsCount());
+            occupied.set(head);
+
+            int expected = longestPath(gridSize, occupied, head);
+            Player.ActionsType move = solver.solve(occupied, head, NO_OPPONENT, new Player.GenerationsBudget(1));
+
+            assertThat(solver.isExact()).isTrue();
+            assertThat(solver.getPathLength()).isEqualTo(expected);
+            if (expected > 0) {
+                int next = gridSize.neighbour(head, move);
+                assertThat(next).isNotNegative();
+                assertThat(occupied.get(next)).isFalse();
+
+                occupied.set(next);
+                assertThat(longestPath(gridSize, occupied, next)).isEqualTo(expected - 1);
+                occupied.clear(next);
+            }
+
+            Player.BitBoard region = new Player.BitBoard(gridSize);
+            floodFill.connectedRegion(occupied, head, region);
+            assertThat(solver.parityBound(region, head)).isGreaterThanOrEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("bounds paths by the checkerboard colours of their region")
+    void boundsPathsByTheirColours() {
+        // a 3x3 open square: the head sits on a corner, which has the colour of four cells out of eight
+        Player.GridSize gridSize = new Player.GridSize(3, 3);
+        Player.BitBoard region = new Player.BitBoard(gridSize);
+        for (int cell = 1; cell < gridSize.getCellsCount(); cell++) {
+            region.set(cell);
+        }
+
+        Player.EndgameSolver solver = new Player.EndgameSolver(gridSize, 1000, 64);
+        assertThat(solver.parityBound(region, 0)).isEqualTo(8);
+
+        // from the centre, the other colour lacks cells: moves alternate between four corners and four edges
+        region.set(0);
+        region.clear(4);
+        assertThat(solver.parityBound(region, 4)).isEqualTo(8);
+
+        // without an edge, only three corners can be reached in between
+        region.clear(1);
+        assertThat(solver.parityBound(region, 4)).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("plays the best path found once out of nodes")
+    void playsTheBestPathFoundOnceOutOfNodes() {
+        Player.GridSize gridSize = new Player.GridSize(30, 20);
+        Player.BitBoard occupied = new Player.BitBoard(gridSize);
+        Random random = new Random(7);
+        for (int cell = 0; cell < gridSize.getCellsCount(); cell++) {
+            if (random.nextDouble() < .15) {
+                occupied.set(cell);
+            }
+        }
+        int head = gridSize.cellOf(15, 10);
+        occupied.set(head);
+
+        Player.EndgameSolver solver = new Player.EndgameSolver(gridSize, 500, 1 << 10);
+        Player.ActionsType move = solver.solve(occupied, head, NO_OPPONENT, new Player.GenerationsBudget(1));
+
+        assertThat(solver.isExact()).isFalse();
+        assertThat(solver.getSearchedNodes()).isLessThanOrEqualTo(500 + 4);
+        assertThat(solver.getPathLength()).isGreaterThan(1);
+        assertThat(occupied.get(gridSize.neighbour(head, move))).isFalse();
+    }
+
+    // exhaustive search, only practical on tiny arenas
+    private static int longestPath(Player.GridSize gridSize, Player.BitBoard occupied, int head) {
+        int longest = 0;
+        for (Player.ActionsType action : Player.ActionsType.values()) {
+            int next = gridSize.neighbour(head, action);
+            if (next >= 0 && !occupied.get(next)) {
+                occupied.set(next);
+                longest = Math.max(longest, 1 + longestPath(gridSize, occupied, next));
+                occupied.clear(next);
+            }
+        }
+        return longest;
+    }
+}
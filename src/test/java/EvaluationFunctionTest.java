@@ -0,0 +1,128 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("An evaluation function")
+class EvaluationFunctionTest implements WithAssertions {
+
+    private static final Player.Spot PLAYER_START_SPOT = new Player.Spot(5, 5);
+    private static final Player.Spot OPPONENT_START_SPOT = new Player.Spot(20, 10);
+
+    @Test
+    @DisplayName("only stops early on plans scoring below the cutoff")
+    void onlyStopsEarlyBelowTheCutoff() {
+        assertHonoursCutoffs(Player.FloodFillAI::evaluate);
+        assertHonoursCutoffs(Player.FibonacciLongestSequenceAI::evaluate);
+        assertHonoursCutoffs(Player.RelaxedLongestSequenceAI::evaluate);
+    }
+
+    @Test
+    @DisplayName("never ranks a cut off plan above an exactly scored one it does not beat")
+    void neverRanksCutOffPlansAboveExactOnes() {
+        assertRanksCutOffPlansBelow(Player.FloodFillAI::evaluate);
+        assertRanksCutOffPlansBelow(Player.FibonacciLongestSequenceAI::evaluate);
+        assertRanksCutOffPlansBelow(Player.RelaxedLongestSequenceAI::evaluate);
+    }
+
+    @Test
+    @DisplayName("scores exactly when not given a cutoff")
+    void scoresExactlyWithoutCutoff() {
+        Player.CutoffEvaluationFunction function = Player.RelaxedLongestSequenceAI::evaluate;
+        Player.ActionsType[] actions = { Player.ActionsType.LEFT, Player.ActionsType.LEFT, Player.ActionsType.RIGHT };
+
+        Player.TronSimulator simulator = new Player.TronSimulator(battleField().getSnapshot());
+
+        // the last move goes back into the trail
+        assertThat(function.evaluate(simulator, PLAYER_START_SPOT, actions)).isEqualTo(2.0 / 3);
+    }
+
+    private void assertHonoursCutoffs(Player.CutoffEvaluationFunction function) {
+        Player.TronSimulator simulator = new Player.TronSimulator(battleField().getSnapshot());
+
+        for (Player.ActionsType[] actions : randomPlans()) {
+            double exact = score(simulator, function, actions, Player.EvaluationFunction.NO_CUTOFF);
+
+            for (double cutoff : new double[] { 0.0, exact / 2, exact, exact * 2, 1.0 }) {
+                double score = score(simulator, function, actions, cutoff);
+
+                if (exact >= cutoff) {
+                    assertThat(score).isEqualTo(exact);
+                } else {
+                    assertThat(score).isLessThan(cutoff).isLessThanOrEqualTo(exact);
+                }
+            }
+        }
+    }
+
+    private void assertRanksCutOffPlansBelow(Player.CutoffEvaluationFunction function) {
+        Player.TronSimulator simulator = new Player.TronSimulator(battleField().getSnapshot());
+        List<Player.ActionsType[]> plans = randomPlans();
+
+        double[] exact = new double[plans.size()];
+        for (int i = 0; i < plans.size(); i++) {
+            exact[i] = score(simulator, function, plans.get(i), Player.EvaluationFunction.NO_CUTOFF);
+        }
+
+        // cutoffs spread over the range of exact scores, as the elite's score would be along a search
+        double[] sorted = exact.clone();
+        Arrays.sort(sorted);
+        for (int quartile = 1; quartile <= 3; quartile++) {
+            double cutoff = sorted[quartile * sorted.length / 4];
+
+            double[] scores = new double[plans.size()];
+            for (int i = 0; i < plans.size(); i++) {
+                scores[i] = score(simulator, function, plans.get(i), cutoff);
+            }
+
+            for (int cutOff = 0; cutOff < plans.size(); cutOff++) {
+                if (scores[cutOff] == exact[cutOff]) {
+                    continue;
+                }
+
+                for (int scored = 0; scored < plans.size(); scored++) {
+                    if (scores[scored] == exact[scored] && exact[scored] >= exact[cutOff]) {
+                        assertThat(scores[cutOff]).isLessThanOrEqualTo(scores[scored]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<Player.ActionsType[]> randomPlans() {
+        Player.RandomGenerator random = new Player.SplitMixRandom(19);
+        Player.ActionsType[] values = Player.ActionsType.values();
+
+        List<Player.ActionsType[]> plans = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            Player.ActionsType[] actions = new Player.ActionsType[16 + random.nextInt(64)];
+            for (int j = 0; j < actions.length; j++) {
+                actions[j] = values[random.nextInt(values.length)];
+            }
+            plans.add(actions);
+        }
+        return plans;
+    }
+
+    private static double score(
+            Player.TronSimulator simulator,
+            Player.EvaluationFunction function,
+            Player.ActionsType[] actions,
+            double cutoff) {
+
+        int mark = simulator.mark();
+        double score = function.evaluate(simulator, PLAYER_START_SPOT, actions, cutoff);
+        simulator.rewind(mark);
+        return score;
+    }
+
+    private static Player.BattleField battleField() {
+        Player.BattleField battleField = new Player.BattleField();
+        battleField.addLightCycleAt(PLAYER_START_SPOT, PLAYER_START_SPOT);
+        battleField.addLightCycleAt(OPPONENT_START_SPOT, OPPONENT_START_SPOT);
+        return battleField;
+    }
+}
@@ -1,5 +1,11 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.Random;
+
 import org.assertj.core.api.WithAssertions;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 @DisplayName("The Flood Fill AI")
@@ -63,4 +69,173 @@ class FloodFillAITest implements WithAssertions {
 
         assertThat(size).isEqualTo(6);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("counts the same area by cell index as the reference implementation")
+    void cellIndexMatchesTheReferenceImplementation() {
+        Random random = new Random(45);
+        Player.GridSize gridSize = new Player.GridSize(30, 20);
+
+        for (int round = 0; round < 200; round++) {
+            Player.BitBoard occupied = randomArena(random, gridSize);
+            Player.Spot target = new Player.Spot(
+                    random.nextInt(gridSize.getMaxX()),
+                    random.nextInt(gridSize.getMaxY()));
+
+            int expected = Player.FloodFillAI.floodFillArea(
+                    spot -> !occupied.get(spot.getX(), spot.getY()), gridSize, target);
+
+            assertThat(Player.FloodFillAI.floodFillArea(
+                    cell -> !occupied.get(cell), gridSize, gridSize.cellOf(target))).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("plays the same move for the same seed whatever the parallelism")
+    void playsTheSameMoveForTheSameSeed() {
+        int[] input = { 2, 0, 3, 3, 3, 3, 20, 10, 20, 10 };
+
+        Player.FloodFillAI serial = new Player.FloodFillAI(repositoryFor(input), 1, 42L);
+        try (Player.FloodFillAI parallel = new Player.FloodFillAI(repositoryFor(input), 4, 42L)) {
+            serial.updateRepository();
+            parallel.updateRepository();
+
+            assertThat(parallel.play()).containsExactly(serial.play());
+        }
+    }
+
+    @Test
+    @DisplayName("fills the largest side of its region once walled off from its opponent")
+    void solvesTheEndgameOnceSeparated() {
+        // the opponent walls off the column x = 15 then leaves it, while the player splits its side along x = 3
+        Queue<Integer> input = new ArrayDeque<>();
+        Player.FloodFillAI ai = new Player.FloodFillAI(new Player.InputRepository(input::remove), 1, 42L);
+
+        Arrays.stream(new int[] { 2, 0, 2, 0, 2, 0, 15, 0, 15, 0 }).forEach(input::add);
+        ai.updateRepository();
+        for (int turn = 1; turn <= 20; turn++) {
+            int opponentX = turn < 20 ? 15 : 16;
+            int opponentY = Math.min(turn, 19);
+            Arrays.stream(new int[] { 2, 0, 2, 0, 3, turn - 1, 15, 0, opponentX, opponentY }).forEach(input::add);
+            ai.updateRepository();
+        }
+
+        assertThat(ai.play()[0].getType()).isEqualTo(Player.ActionsType.RIGHT);
+        assertThat(ai.getEndgame().getPathLength()).isGreaterThan(200);
+    }
+
+    @Test
+    @DisplayName("scores the area left within reach relative to the available spots")
+    void scoresTheAreaRelativeToTheAvailableSpots() {
+        Random random = new Random(44);
+        Player.GridSize gridSize = new Player.GridSize(30, 20);
+        Player.ActionsType[] values = Player.ActionsType.values();
+
+        Player.BattleField battleField = new Player.BattleField();
+        Player.Spot startSpot = new Player.Spot(5, 5);
+        battleField.addLightCycleAt(startSpot, startSpot);
+        battleField.addLightCycleAt(new Player.Spot(20, 10), new Player.Spot(20, 10));
+
+        for (int round = 0; round < 50; round++) {
+            Player.ActionsType[] actions = new Player.ActionsType[1 + random.nextInt(64)];
+            for (int i = 0; i < actions.length; i++) {
+                actions[i] = values[random.nextInt(values.length)];
+            }
+
+            Player.TronSimulator simulator = new Player.TronSimulator(battleField.getSnapshot());
+            double score = Player.FloodFillAI.evaluate(
+                    simulator, startSpot, actions, Player.EvaluationFunction.NO_CUTOFF);
+
+            // replays the plan to score it with the reference flood fill
+            Player.TronSimulator replay = new Player.TronSimulator(battleField.getSnapshot());
+            int failures = 0;
+            for (Player.ActionsType action : actions) {
+                if (!replay.perform(startSpot, action)) {
+                    failures++;
+                }
+            }
+            int area = Player.FloodFillAI.floodFillArea(
+                    spot -> !replay.hasBeenVisited(spot), gridSize, replay.getCurrentSpot(startSpot));
+            double weight = 1.0 - failures * (1.0 / actions.length);
+
+            assertThat(score).isCloseTo((double) area / replay.getAvailableSpotsCount() * weight, within(1e-9));
+        }
+    }
+
+    private static Player.InputRepository repositoryFor(int... input) {
+        Queue<Integer> queue = new ArrayDeque<>();
+        Arrays.stream(input).forEach(queue::add);
+        return new Player.InputRepository(queue::remove);
+    }
+
+    private static Player.BitBoard randomArena(Random random, Player.GridSize gridSize) {
+        Player.BitBoard occupied = new Player.BitBoard(gridSize);
+        double density = random.nextDouble() * .6;
+
+        for (int y = 0; y < gridSize.getMaxY(); y++) {
+            for (int x = 0; x < gridSize.getMaxX(); x++) {
+                if (random.nextDouble() < density) {
+                    occupied.set(x, y);
+                }
+            }
+        }
+
+        return occupied;
+    }
+
+    @Nested
+    @DisplayName("bit parallel implementation")
+    class BitFloodFill {
+
+        @Test
+        @DisplayName("returns correct size sub-area has been blocked")
+        void floodFillBlockedMap() {
+            // ....
+            // xxx.
+            // ..x.
+            Player.GridSize gridSize = new Player.GridSize(4, 3);
+            Player.BitBoard occupied = new Player.BitBoard(gridSize);
+            occupied.set(0, 1);
+            occupied.set(1, 1);
+            occupied.set(2, 1);
+            occupied.set(2, 2);
+
+            int size = new Player.BitFloodFill(gridSize).area(occupied, 0, 0);
+
+            assertThat(size).isEqualTo(6);
+        }
+
+        @Test
+        @DisplayName("does not count an occupied target")
+        void doesNotCountAnOccupiedTarget() {
+            Player.GridSize gridSize = new Player.GridSize(30, 20);
+            Player.BitBoard occupied = new Player.BitBoard(gridSize);
+            occupied.set(29, 19);
+
+            int size = new Player.BitFloodFill(gridSize).area(occupied, 29, 19);
+
+            assertThat(size).isEqualTo(599);
+        }
+
+        @Test
+        @DisplayName("matches the reference implementation on random arenas")
+        void matchesTheReferenceImplementation() {
+            Random random = new Random(42);
+            Player.GridSize gridSize = new Player.GridSize(30, 20);
+            Player.BitFloodFill floodFill = new Player.BitFloodFill(gridSize);
+
+            for (int round = 0; round < 200; round++) {
+                Player.BitBoard occupied = randomArena(random, gridSize);
+
+                Player.Spot target = new Player.Spot(
+                        random.nextInt(gridSize.getMaxX()),
+                        random.nextInt(gridSize.getMaxY()));
+
+                int expected = Player.FloodFillAI.floodFillArea(
+                        spot -> !occupied.get(spot.getX(), spot.getY()), gridSize, target);
+
+                assertThat(floodFill.area(occupied, target.getX(), target.getY())).isEqualTo(expected);
+            }
+        }
+    }
+}
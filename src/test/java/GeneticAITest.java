@@ -0,0 +1,177 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("The genetic AI")
+class GeneticAITest implements WithAssertions {
+
+    @Test
+    @DisplayName("evolves until the turn's deadline")
+    void evolvesUntilTheTurnsDeadline() {
+        // every clock reading takes 1ms
+        AtomicLong clock = new AtomicLong();
+        Player.TimeBudget budget = new Player.TimeBudget(10, 3,
+                () -> clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1)));
+
+        Queue<Integer> input = new ArrayDeque<>();
+        Player.FloodFillAI ai = new Player.FloodFillAI(new Player.InputRepository(input::remove), budget, 1, 42L);
+
+        feed(input, 2, 0, 3, 3, 3, 3, 20, 10, 20, 10);
+        ai.updateRepository();
+        Player.ActionsType firstMove = ai.play()[0].getType();
+
+        assertThat(ai.getCompletedGenerations()).isEqualTo(9);
+
+        Player.Spot next = new Player.Spot(3, 3).next(firstMove);
+        feed(input, 2, 0, 3, 3, next.getX(), next.getY(), 20, 10, 20, 11);
+        ai.updateRepository();
+        ai.play();
+
+        assertThat(ai.getCompletedGenerations()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("runs a fixed number of generations when budgeted by generations")
+    void runsAFixedNumberOfGenerations() {
+        Queue<Integer> input = new ArrayDeque<>();
+        Player.FloodFillAI ai = new Player.FloodFillAI(
+                new Player.InputRepository(input::remove), new Player.GenerationsBudget(16), 1, 42L);
+
+        feed(input, 2, 0, 3, 3, 3, 3, 20, 10, 20, 10);
+        ai.updateRepository();
+        ai.play();
+
+        assertThat(ai.getCompletedGenerations()).isEqualTo(16);
+    }
+
+    @Test
+    @DisplayName("records the statistics of each generation")
+    void recordsGenerationStats() {
+        Queue<Integer> input = new ArrayDeque<>();
+        Player.FloodFillAI ai = new Player.FloodFillAI(
+                new Player.InputRepository(input::remove), new Player.GenerationsBudget(16), 1, 42L);
+
+        feed(input, 2, 0, 3, 3, 3, 3, 20, 10, 20, 10);
+        ai.updateRepository();
+        ai.play();
+
+        Player.GenerationStats stats = ai.getStats();
+        assertThat(stats.size()).isEqualTo(17);
+        for (int generation = 0; generation < stats.size(); generation++) {
+            assertThat(stats.getMean(generation)).isLessThanOrEqualTo(stats.getBest(generation));
+            assertThat(stats.getDiversity(generation)).isGreaterThan(0.0).isLessThanOrEqualTo(1.0);
+            if (generation > 0) {
+                // the elite is kept
+                assertThat(stats.getBest(generation)).isGreaterThanOrEqualTo(stats.getBest(generation - 1));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("stops evolving once its best score has plateaued")
+    void stopsOnPlateau() {
+        Queue<Integer> input = new ArrayDeque<>();
+        Player.FloodFillAI ai = new Player.FloodFillAI(
+                new Player.InputRepository(input::remove),
+                new Player.PlateauBudget(new Player.GenerationsBudget(256), 8, 0.0),
+                1,
+                42L);
+
+        feed(input, 2, 0, 3, 3, 3, 3, 20, 10, 20, 10);
+        ai.updateRepository();
+        ai.play();
+
+        Player.GenerationStats stats = ai.getStats();
+        int last = stats.size() - 1;
+        assertThat(ai.getCompletedGenerations()).isLessThan(256).isEqualTo(last);
+        assertThat(stats.getBest(last)).isEqualTo(stats.getBest(last - 8));
+        for (int generation = 8; generation < last; generation++) {
+            assertThat(stats.getBest(generation)).isGreaterThan(stats.getBest(generation - 8));
+        }
+    }
+
+    @Test
+    @DisplayName("carries its population forward to the next turn")
+    void carriesItsPopulationForward() {
+        Queue<Integer> input = new ArrayDeque<>();
+        Player.FloodFillAI ai = new Player.FloodFillAI(
+                new Player.InputRepository(input::remove), new Player.GenerationsBudget(0), 1, 42L);
+
+        feed(input, 2, 0, 3, 3, 3, 3, 20, 10, 20, 10);
+        ai.updateRepository();
+        Player.ActionsType firstMove = ai.play()[0].getType();
+        List<Player.Chromosome> firstPopulation = ai.getPopulation();
+
+        Player.Spot next = new Player.Spot(3, 3).next(firstMove);
+        feed(input, 2, 0, 3, 3, next.getX(), next.getY(), 20, 10, 20, 11);
+        ai.updateRepository();
+        ai.play();
+        List<Player.Chromosome> secondPopulation = ai.getPopulation();
+
+        assertThat(secondPopulation).hasSameSizeAs(firstPopulation);
+        for (int i = 0; i < firstPopulation.size(); i++) {
+            Player.ActionsType[] before = firstPopulation.get(i).getGenes();
+            Player.ActionsType[] after = secondPopulation.get(i).getGenes();
+
+            assertThat(Arrays.copyOf(after, after.length - 1)).containsExactly(
+                    Arrays.copyOfRange(before, 1, before.length));
+        }
+    }
+
+    @Test
+    @DisplayName("evolves every island for the budgeted generations")
+    void evolvesEveryIsland() {
+        Queue<Integer> input = new ArrayDeque<>();
+        try (Player.IslandGeneticAI ai = new Player.IslandGeneticAI(
+                4, 2, 2, 16, 8, new Player.GenerationsBudget(10), .7, .1,
+                new Player.RouletteSelection(), new Player.SplitMixRandom(42L),
+                Player.ResumingPopulationEvaluator::new,
+                Player.GeneEncoding.RELATIVE,
+                new Player.InputRepository(input::remove),
+                (engine, startAt, actions) -> {
+                    int player = engine.playerIndex(startAt);
+                    double score = 0.0;
+                    for (Player.ActionsType action : actions) {
+                        if (engine.perform(player, action)) {
+                            score += 1.0;
+                        }
+                    }
+                    return score;
+                })) {
+
+            feed(input, 2, 0, 0, 0, 0, 0, 20, 10, 20, 10);
+            ai.updateRepository();
+            Player.ActionsType move = ai.play()[0].getType();
+
+            assertThat(ai.getCompletedGenerations()).isEqualTo(10);
+            assertThat(ai.getPopulation()).hasSize(4 * 9);
+            assertThat(move).isIn(Player.ActionsType.RIGHT, Player.ActionsType.DOWN);
+        }
+    }
+
+    @Test
+    @DisplayName("hands the last posted migrants over once")
+    void handsMigrantsOverOnce() {
+        Player.MigrationExchange exchange = new Player.MigrationExchange(2);
+        Player.Chromosome[] first = new Player.Chromosome[0];
+        Player.Chromosome[] second = new Player.Chromosome[0];
+
+        exchange.post(1, first);
+        exchange.post(1, second);
+
+        assertThat(exchange.take(0)).isNull();
+        assertThat(exchange.take(1)).isSameAs(second);
+        assertThat(exchange.take(1)).isNull();
+    }
+
+    private static void feed(Queue<Integer> input, int... values) {
+        Arrays.stream(values).forEach(input::add);
+    }
+}
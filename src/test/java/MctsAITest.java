@@ -0,0 +1,122 @@
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("The Monte Carlo tree search AI")
+class MctsAITest implements WithAssertions {
+
+    @Test
+    @DisplayName("does not move into a dead end")
+    void doesNotMoveIntoADeadEnd() {
+        // the player went down then right, the opponent went right from (2, 0): (1, 0) is a dead end
+        Queue<Integer> input = new ArrayDeque<>();
+        Player.MctsAI ai = new Player.MctsAI(
+                new Player.InputRepository(input::remove),
+                new Player.GenerationsBudget(2000),
+                new Player.SplitMixRandom(42));
+
+        feed(input, 2, 0, 0, 0, 0, 0, 2, 0, 2, 0);
+        ai.updateRepository();
+        feed(input, 2, 0, 0, 0, 0, 1, 2, 0, 3, 0);
+        ai.updateRepository();
+        feed(input, 2, 0, 0, 0, 1, 1, 2, 0, 4, 0);
+        ai.updateRepository();
+
+        assertThat(ai.play()[0].getType()).isNotEqualTo(Player.ActionsType.UP);
+    }
+
+    @Test
+    @DisplayName("runs one playout for each generation of its budget")
+    void runsOnePlayoutPerGeneration() {
+        Queue<Integer> input = new ArrayDeque<>();
+        Player.MctsAI ai = new Player.MctsAI(
+                new Player.InputRepository(input::remove),
+                new Player.GenerationsBudget(500),
+                new Player.SplitMixRandom(42));
+
+        feed(input, 2, 0, 3, 3, 3, 3, 20, 10, 20, 10);
+        ai.updateRepository();
+        ai.play();
+
+        assertThat(ai.getPlayouts()).isEqualTo(500);
+        assertThat(ai.getRootVisits()).isEqualTo(500);
+        assertThat(ai.getPlayoutsPerSecond()).isGreaterThan(0.0);
+        assertThat(ai.getReusedNodes()).isZero();
+    }
+
+    @Test
+    @DisplayName("keeps the subtree of the movements played from one turn to the next")
+    void keepsTheSubtreeOfThePlayedMovements() {
+        Queue<Integer> input = new ArrayDeque<>();
+        Player.MctsAI ai = new Player.MctsAI(
+                new Player.InputRepository(input::remove),
+                new Player.GenerationsBudget(500),
+                new Player.SplitMixRandom(42));
+
+        feed(input, 2, 0, 3, 3, 3, 3, 20, 10, 20, 10);
+        ai.updateRepository();
+        Player.Spot next = new Player.Spot(3, 3).next(ai.play()[0].getType());
+
+        feed(input, 2, 0, 3, 3, next.getX(), next.getY(), 20, 10, 19, 10);
+        ai.updateRepository();
+        ai.play();
+
+        assertThat(ai.getReusedNodes()).isGreaterThan(1);
+        assertThat(ai.getRootVisits()).isGreaterThan(500);
+    }
+
+    @Test
+    @DisplayName("keeps searching once its arena is full")
+    void keepsSearchingOnceItsArenaIsFull() {
+        Queue<Integer> input = new ArrayDeque<>();
+        Player.MctsAI ai = new Player.MctsAI(
+                new Player.InputRepository(input::remove),
+                new Player.GenerationsBudget(500),
+                new Player.SplitMixRandom(42),
+                16);
+
+        feed(input, 2, 0, 3, 3, 3, 3, 20, 10, 20, 10);
+        ai.updateRepository();
+        Player.ActionsType move = ai.play()[0].getType();
+
+        assertThat(ai.getTreeSize()).isLessThanOrEqualTo(16);
+        assertThat(ai.getRootVisits()).isEqualTo(500);
+        assertThat(move).isNotNull();
+    }
+
+    @Test
+    @DisplayName("shares its tree between threads without losing playouts")
+    void sharesItsTreeBetweenThreads() {
+        // the player went down then right, the opponent went right from (2, 0): (1, 0) is a dead end
+        Queue<Integer> input = new ArrayDeque<>();
+        try (Player.MctsAI ai = new Player.MctsAI(
+                new Player.InputRepository(input::remove),
+                new Player.GenerationsBudget(2000),
+                new Player.SplitMixRandom(42),
+                256,
+                4)) {
+
+            feed(input, 2, 0, 0, 0, 0, 0, 2, 0, 2, 0);
+            ai.updateRepository();
+            feed(input, 2, 0, 0, 0, 0, 1, 2, 0, 3, 0);
+            ai.updateRepository();
+            feed(input, 2, 0, 0, 0, 1, 1, 2, 0, 4, 0);
+            ai.updateRepository();
+            Player.ActionsType move = ai.play()[0].getType();
+
+            assertThat(ai.getPlayouts()).isEqualTo(2000);
+            assertThat(ai.getRootVisits()).isEqualTo(2000);
+            assertThat(ai.getTreeSize()).isLessThanOrEqualTo(256);
+            assertThat(move).isNotEqualTo(Player.ActionsType.UP);
+        }
+    }
+
+    private static void feed(Queue<Integer> input, int... values) {
+        for (int value : values) {
+            input.add(value);
+        }
+    }
+}
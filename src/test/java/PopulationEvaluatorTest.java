@@ -0,0 +1,267 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("A population evaluator")
+class PopulationEvaluatorTest implements WithAssertions {
+
+    private static final Player.Spot PLAYER_START_SPOT = new Player.Spot(5, 5);
+    private static final Player.Spot OPPONENT_START_SPOT = new Player.Spot(20, 10);
+
+    // counts successful moves, then scores the reachable area
+    private static final Player.EvaluationFunction AREA = (engine, startAt, actions) -> {
+        int player = engine.playerIndex(startAt);
+        double score = 0.0;
+        for (Player.ActionsType action : actions) {
+            if (engine.perform(player, action)) {
+                score += 1.0;
+            }
+        }
+        return score + engine.floodFillArea(engine.getCurrentCell(player));
+    };
+
+    // stops on the first invalid move
+    private static final Player.EvaluationFunction LONGEST_SEQUENCE = (engine, startAt, actions) -> {
+        double score = 0.0;
+        for (Player.ActionsType action : actions) {
+            if (!engine.perform(startAt, action)) {
+                break;
+            }
+            score += 1.0;
+        }
+        return score;
+    };
+
+    @Test
+    @DisplayName("scores in parallel the same way as serially")
+    void parallelScoresLikeSerial() {
+        try (Player.ParallelPopulationEvaluator evaluator = new Player.ParallelPopulationEvaluator(3)) {
+            assertSameScores(evaluator, AREA);
+            assertSameScores(evaluator, LONGEST_SEQUENCE);
+        }
+    }
+
+    @Test
+    @DisplayName("scores with shared prefixes the same way as serially")
+    void prefixSharingScoresLikeSerial() {
+        assertSameScores(new Player.PrefixSharingPopulationEvaluator(), AREA);
+        assertSameScores(new Player.PrefixSharingPopulationEvaluator(), LONGEST_SEQUENCE);
+    }
+
+    @Test
+    @DisplayName("scores relative turns with shared prefixes the same way as serially")
+    void prefixSharingScoresRelativeTurnsLikeSerial() {
+        Player.RandomGenerator random = new Player.SplitMixRandom(11);
+
+        List<Player.Chromosome> chromosomes = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            Player.Chromosome chromosome = Player.Chromosome.random(
+                    8, Player.GeneEncoding.RELATIVE, AREA, PLAYER_START_SPOT, random);
+            chromosomes.add(chromosome);
+            chromosomes.add(chromosome.mutate());
+        }
+
+        Player.SerialPopulationEvaluator serial = new Player.SerialPopulationEvaluator();
+        serial.prepare(battleField().getSnapshot());
+        serial.evaluate(chromosomes);
+
+        List<Player.Chromosome> copies = new ArrayList<>();
+        for (Player.Chromosome chromosome : chromosomes) {
+            copies.add(new Player.Chromosome(chromosome.getTurns(), AREA, PLAYER_START_SPOT, random));
+        }
+
+        Player.PrefixSharingPopulationEvaluator evaluator = new Player.PrefixSharingPopulationEvaluator();
+        evaluator.prepare(battleField().getSnapshot());
+        evaluator.evaluate(copies);
+
+        assertThat(copies.stream().mapToDouble(Player.Chromosome::getScore).toArray())
+                .containsExactly(chromosomes.stream().mapToDouble(Player.Chromosome::getScore).toArray());
+    }
+
+    @Test
+    @DisplayName("scores bred chromosomes resumed from their parents the same way as serially")
+    void resumingScoresLikeSerial() {
+        assertSameBredScores(Player.GeneEncoding.ABSOLUTE, AREA);
+        assertSameBredScores(Player.GeneEncoding.ABSOLUTE, LONGEST_SEQUENCE);
+        assertSameBredScores(Player.GeneEncoding.RELATIVE, AREA);
+    }
+
+    @Test
+    @DisplayName("only simulates the genes after a mutation's pivot")
+    void simulatesGenesAfterThePivot() {
+        Player.ResumingPopulationEvaluator evaluator = new Player.ResumingPopulationEvaluator();
+        evaluator.prepare(battleField().getSnapshot());
+
+        Player.Chromosome parent = Player.Chromosome.random(
+                64, Player.GeneEncoding.ABSOLUTE, AREA, PLAYER_START_SPOT, new Player.SplitMixRandom(13));
+        evaluator.evaluate(Collections.singletonList(parent));
+        assertThat(evaluator.getSimulatedSteps()).isEqualTo(64);
+
+        Player.Chromosome child = parent.mutate();
+        evaluator.evaluate(Collections.singletonList(child));
+
+        int pivot = 0;
+        while (parent.getGene(pivot) == child.getGene(pivot)) {
+            pivot++;
+        }
+        assertThat(child.getKnownResults()).isEqualTo(64);
+        assertThat(evaluator.getSimulatedSteps()).isEqualTo(64 + 64 - pivot);
+    }
+
+    @Test
+    @DisplayName("scores from its cache the same way as serially")
+    void cachingScoresLikeSerial() {
+        assertSameScores(
+                new Player.CachingPopulationEvaluator(new Player.SerialPopulationEvaluator(), 16), AREA);
+        assertSameScores(
+                new Player.CachingPopulationEvaluator(new Player.SerialPopulationEvaluator(), 16), LONGEST_SEQUENCE);
+    }
+
+    @Test
+    @DisplayName("evaluates each gene sequence once per turn")
+    void evaluatesEachSequenceOncePerTurn() {
+        Player.ActionsType[] genes = { Player.ActionsType.DOWN, Player.ActionsType.RIGHT, Player.ActionsType.RIGHT };
+        List<Player.Chromosome> evaluated = new ArrayList<>();
+
+        Player.SerialPopulationEvaluator serial = new Player.SerialPopulationEvaluator();
+        Player.CachingPopulationEvaluator evaluator = new Player.CachingPopulationEvaluator(
+                new Player.PopulationEvaluator() {
+                    @Override
+                    public void prepare(Player.BattleFieldSnapshot snapshot) {
+                        serial.prepare(snapshot);
+                    }
+
+                    @Override
+                    public void evaluate(List<Player.Chromosome> chromosomes, double cutoff) {
+                        evaluated.addAll(chromosomes);
+                        serial.evaluate(chromosomes, cutoff);
+                    }
+                },
+                64);
+
+        Player.BattleField battleField = battleField();
+        evaluator.prepare(battleField.getSnapshot());
+
+        Player.Chromosome first = new Player.Chromosome(genes, AREA, PLAYER_START_SPOT, new Player.SplitMixRandom(0));
+        Player.Chromosome second = new Player.Chromosome(genes, AREA, PLAYER_START_SPOT, new Player.SplitMixRandom(0));
+        evaluator.evaluate(Collections.singletonList(first));
+        evaluator.evaluate(Collections.singletonList(second));
+
+        assertThat(evaluated).containsExactly(first);
+        assertThat(second.getScore()).isEqualTo(first.getScore());
+        assertThat(evaluator.getHits()).isEqualTo(1);
+        assertThat(evaluator.getMisses()).isEqualTo(1);
+
+        // the next turn starts from an empty cache
+        battleField.moveTo(PLAYER_START_SPOT, PLAYER_START_SPOT.next(Player.ActionsType.UP));
+        evaluator.prepare(battleField.getSnapshot());
+        Player.Chromosome third = new Player.Chromosome(genes, AREA, PLAYER_START_SPOT, new Player.SplitMixRandom(0));
+        evaluator.evaluate(Collections.singletonList(third));
+
+        assertThat(evaluated).containsExactly(first, third);
+        assertThat(evaluator.getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("simulates shared prefixes only once")
+    void simulatesSharedPrefixesOnce() {
+        Player.ActionsType[] prefix = { Player.ActionsType.DOWN, Player.ActionsType.DOWN, Player.ActionsType.RIGHT };
+
+        List<Player.Chromosome> chromosomes = new ArrayList<>();
+        for (Player.ActionsType last : Player.ActionsType.values()) {
+            Player.ActionsType[] genes = { prefix[0], prefix[1], prefix[2], last };
+            chromosomes.add(new Player.Chromosome(genes, AREA, PLAYER_START_SPOT, new Player.SplitMixRandom(0)));
+        }
+
+        Player.PrefixSharingPopulationEvaluator evaluator = new Player.PrefixSharingPopulationEvaluator();
+        evaluator.prepare(battleField().getSnapshot());
+        evaluator.evaluate(chromosomes);
+
+        assertThat(evaluator.getSimulatedSteps()).isEqualTo(prefix.length + Player.ActionsType.values().length);
+    }
+
+    private void assertSameScores(Player.PopulationEvaluator evaluator, Player.EvaluationFunction function) {
+        Player.RandomGenerator random = new Player.SplitMixRandom(7);
+        Player.ActionsType[] actions = Player.ActionsType.values();
+
+        // a few seeds bred into a population sharing many prefixes
+        List<Player.Chromosome> chromosomes = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Player.ActionsType[] genes = new Player.ActionsType[16];
+            for (int j = 0; j < genes.length; j++) {
+                genes[j] = actions[random.nextInt(actions.length)];
+            }
+            chromosomes.add(new Player.Chromosome(genes, function, PLAYER_START_SPOT, random));
+        }
+        for (int i = 0; i < 24; i++) {
+            Player.Chromosome parent = chromosomes.get(random.nextInt(chromosomes.size()));
+            chromosomes.add(parent.mutate());
+        }
+
+        Player.SerialPopulationEvaluator serial = new Player.SerialPopulationEvaluator();
+        serial.prepare(battleField().getSnapshot());
+        serial.evaluate(chromosomes);
+
+        List<Player.Chromosome> copies = new ArrayList<>();
+        for (Player.Chromosome chromosome : chromosomes) {
+            copies.add(new Player.Chromosome(chromosome.getGenes(), function, PLAYER_START_SPOT, random));
+        }
+
+        evaluator.prepare(battleField().getSnapshot());
+        evaluator.evaluate(copies);
+
+        assertThat(copies.stream().mapToDouble(Player.Chromosome::getScore).toArray())
+                .containsExactly(chromosomes.stream().mapToDouble(Player.Chromosome::getScore).toArray());
+    }
+
+    private void assertSameBredScores(Player.GeneEncoding encoding, Player.EvaluationFunction function) {
+        Player.RandomGenerator random = new Player.SplitMixRandom(17);
+
+        Player.ResumingPopulationEvaluator resuming = new Player.ResumingPopulationEvaluator();
+        resuming.prepare(battleField().getSnapshot());
+
+        List<Player.Chromosome> parents = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            parents.add(Player.Chromosome.random(40, encoding, function, PLAYER_START_SPOT, random));
+        }
+        resuming.evaluate(parents);
+
+        // a few generations, so that results get inherited from already bred chromosomes
+        List<Player.Chromosome> children = parents;
+        for (int generation = 0; generation < 4; generation++) {
+            List<Player.Chromosome> next = new ArrayList<>();
+            for (int i = 0; i < children.size(); i += 2) {
+                Collections.addAll(next, children.get(i).crossOver(children.get(i + 1)));
+            }
+            next.replaceAll(chromosome -> random.nextBoolean() ? chromosome.mutate() : chromosome);
+            resuming.evaluate(next);
+            children = next;
+        }
+
+        List<Player.Chromosome> copies = new ArrayList<>();
+        for (Player.Chromosome child : children) {
+            copies.add(encoding == Player.GeneEncoding.ABSOLUTE ?
+                    new Player.Chromosome(child.getGenes(), function, PLAYER_START_SPOT, random) :
+                    new Player.Chromosome(child.getTurns(), function, PLAYER_START_SPOT, random));
+        }
+
+        Player.SerialPopulationEvaluator serial = new Player.SerialPopulationEvaluator();
+        serial.prepare(battleField().getSnapshot());
+        serial.evaluate(copies);
+
+        assertThat(children.stream().mapToDouble(Player.Chromosome::getScore).toArray())
+                .containsExactly(copies.stream().mapToDouble(Player.Chromosome::getScore).toArray());
+        assertThat(resuming.getSimulatedSteps()).isLessThan(16 * 40 * 5);
+    }
+
+    private static Player.BattleField battleField() {
+        Player.BattleField battleField = new Player.BattleField();
+        battleField.addLightCycleAt(PLAYER_START_SPOT, PLAYER_START_SPOT);
+        battleField.addLightCycleAt(OPPONENT_START_SPOT, OPPONENT_START_SPOT);
+        return battleField;
+    }
+}
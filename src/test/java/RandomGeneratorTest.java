@@ -0,0 +1,52 @@
+import java.util.stream.IntStream;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("The random generator")
+class RandomGeneratorTest implements WithAssertions {
+
+    @Test
+    @DisplayName("reproduces its sequence from a seed")
+    void reproducesItsSequence() {
+        Player.RandomGenerator first = new Player.SplitMixRandom(42L);
+        Player.RandomGenerator second = new Player.SplitMixRandom(42L);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(first.nextLong()).isEqualTo(second.nextLong());
+        }
+    }
+
+    @Test
+    @DisplayName("draws uniformly within bounds")
+    void drawsWithinBounds() {
+        Player.RandomGenerator random = new Player.SplitMixRandom(7L);
+        int[] counts = new int[3];
+
+        for (int i = 0; i < 30000; i++) {
+            counts[random.nextInt(3)]++;
+
+            float f = random.nextFloat();
+            assertThat(f).isGreaterThanOrEqualTo(0f).isLessThan(1f);
+            double d = random.nextDouble();
+            assertThat(d).isGreaterThanOrEqualTo(0.0).isLessThan(1.0);
+        }
+
+        for (int count : counts) {
+            assertThat(count).isBetween(9500, 10500);
+        }
+    }
+
+    @Test
+    @DisplayName("splits into a different sequence")
+    void splitsIntoADifferentSequence() {
+        Player.RandomGenerator random = new Player.SplitMixRandom(1L);
+        Player.RandomGenerator split = random.split();
+
+        long[] original = IntStream.range(0, 10).mapToLong(i -> random.nextLong()).toArray();
+        long[] other = IntStream.range(0, 10).mapToLong(i -> split.nextLong()).toArray();
+
+        assertThat(other).doesNotContain(original);
+    }
+}
@@ -0,0 +1,74 @@
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("A selection strategy")
+class SelectionStrategyTest implements WithAssertions {
+
+    private static final Player.Spot START_AT = new Player.Spot(5, 5);
+    private static final Player.EvaluationFunction NO_EVALUATION = (engine, startAt, actions) -> 0.0;
+
+    @Test
+    @DisplayName("picks chromosomes in proportion to their score on a roulette")
+    void picksInProportionToScores() {
+        List<Player.Chromosome> population = population(1.0, 0.0, 3.0, -2.0, 4.0);
+        Player.Selector selector = new Player.RouletteSelection().over(population);
+        Player.RandomGenerator random = new Player.SplitMixRandom(3L);
+
+        int[] picks = new int[population.size()];
+        for (int i = 0; i < 80000; i++) {
+            picks[population.indexOf(selector.select(random))]++;
+        }
+
+        assertThat(picks[0]).isBetween(9500, 10500);
+        assertThat(picks[1]).isZero();
+        assertThat(picks[2]).isBetween(29000, 31000);
+        assertThat(picks[3]).isZero();
+        assertThat(picks[4]).isBetween(39000, 41000);
+    }
+
+    @Test
+    @DisplayName("picks uniformly on a roulette without any positive score")
+    void picksUniformlyWithoutPositiveScores() {
+        List<Player.Chromosome> population = population(0.0, 0.0, -1.0);
+        Player.Selector selector = new Player.RouletteSelection().over(population);
+        Player.RandomGenerator random = new Player.SplitMixRandom(5L);
+
+        int[] picks = new int[population.size()];
+        for (int i = 0; i < 30000; i++) {
+            picks[population.indexOf(selector.select(random))]++;
+        }
+
+        for (int count : picks) {
+            assertThat(count).isBetween(9500, 10500);
+        }
+    }
+
+    @Test
+    @DisplayName("never picks the worst chromosome in a tournament of the whole population")
+    void tournamentPicksTheBest() {
+        List<Player.Chromosome> population = population(1.0, 2.0);
+        Player.Selector selector = new Player.TournamentSelection(16).over(population);
+        Player.RandomGenerator random = new Player.SplitMixRandom(7L);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(selector.select(random)).isSameAs(population.get(1));
+        }
+    }
+
+    private static List<Player.Chromosome> population(double... scores) {
+        List<Player.Chromosome> population = new ArrayList<>();
+        for (double score : scores) {
+            // distinct instances, whatever their genes
+            Player.Chromosome chromosome = new Player.Chromosome(
+                    new Player.ActionsType[] { Player.ActionsType.UP }, NO_EVALUATION, START_AT,
+                    new Player.SplitMixRandom(0L));
+            chromosome.setScore(score);
+            population.add(chromosome);
+        }
+        return population;
+    }
+}
@@ -0,0 +1,40 @@
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("A spot")
+class SpotTest implements WithAssertions {
+
+    @Test
+    @DisplayName("is a canonical instance within the arena")
+    void isCanonicalWithinTheArena() {
+        assertThat(Player.Spot.of(3, 4)).isSameAs(Player.Spot.of(3, 4));
+        assertThat(Player.Spot.of(3, 4)).isEqualTo(new Player.Spot(3, 4));
+        assertThat(Player.Spot.of(3, 4).hashCode()).isEqualTo(new Player.Spot(3, 4).hashCode());
+    }
+
+    @Test
+    @DisplayName("moves to canonical neighbours")
+    void movesToCanonicalNeighbours() {
+        Player.Spot spot = Player.Spot.of(3, 4);
+
+        assertThat(spot.next(Player.ActionsType.UP)).isSameAs(Player.Spot.of(3, 3));
+        assertThat(spot.next(Player.ActionsType.DOWN)).isSameAs(Player.Spot.of(3, 5));
+        assertThat(spot.next(Player.ActionsType.LEFT)).isSameAs(Player.Spot.of(2, 4));
+        assertThat(spot.next(Player.ActionsType.RIGHT)).isSameAs(Player.Spot.of(4, 4));
+        assertThat(new Player.Spot(3, 4).next(Player.ActionsType.RIGHT)).isSameAs(Player.Spot.of(4, 4));
+    }
+
+    @Test
+    @DisplayName("moves outside the arena to the sentinel")
+    void movesOutsideTheArenaToTheSentinel() {
+        Player.GridSize gridSize = new Player.GridSize(30, 20);
+
+        assertThat(Player.Spot.of(0, 0).next(Player.ActionsType.UP)).isSameAs(Player.Spot.OUTSIDE);
+        assertThat(Player.Spot.of(0, 0).next(Player.ActionsType.LEFT)).isSameAs(Player.Spot.OUTSIDE);
+        assertThat(Player.Spot.of(29, 19).next(Player.ActionsType.RIGHT)).isSameAs(Player.Spot.OUTSIDE);
+        assertThat(Player.Spot.of(29, 19).next(Player.ActionsType.DOWN)).isSameAs(Player.Spot.OUTSIDE);
+        assertThat(Player.Spot.of(30, 5)).isSameAs(Player.Spot.OUTSIDE);
+        assertThat(gridSize.isWithinGrid(Player.Spot.OUTSIDE)).isFalse();
+    }
+}
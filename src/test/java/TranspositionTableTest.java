@@ -0,0 +1,155 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("A transposition table")
+class TranspositionTableTest implements WithAssertions {
+
+    @Test
+    @DisplayName("keeps the depth, bound, score and best move of an entry")
+    void keepsEntries() {
+        Player.TranspositionTable table = new Player.TranspositionTable(16);
+
+        table.store(42L, 7, Player.TranspositionTable.Bound.LOWER, -0.25, Player.ActionsType.LEFT);
+        table.store(43L, 0, Player.TranspositionTable.Bound.EXACT, 999_990.0, null);
+
+        long entry = table.probe(42L);
+        assertThat(Player.TranspositionTable.depthOf(entry)).isEqualTo(7);
+        assertThat(Player.TranspositionTable.boundOf(entry)).isEqualTo(Player.TranspositionTable.Bound.LOWER);
+        assertThat(Player.TranspositionTable.scoreOf(entry)).isEqualTo(-0.25);
+        assertThat(Player.TranspositionTable.moveOf(entry)).isEqualTo(Player.ActionsType.LEFT);
+
+        entry = table.probe(43L);
+        assertThat(Player.TranspositionTable.scoreOf(entry)).isEqualTo(999_990.0);
+        assertThat(Player.TranspositionTable.moveOf(entry)).isNull();
+
+        assertThat(table.probe(44L)).isEqualTo(Player.TranspositionTable.MISS);
+    }
+
+    @Test
+    @DisplayName("rounds its capacity up to a power of two")
+    void roundsItsCapacityUp() {
+        assertThat(new Player.TranspositionTable(16).capacity()).isEqualTo(16);
+        assertThat(new Player.TranspositionTable(17).capacity()).isEqualTo(32);
+    }
+
+    @Test
+    @DisplayName("keeps the deepest search of a bucket")
+    void keepsTheDeepestSearch() {
+        // a single bucket: every key collides
+        Player.TranspositionTable table = new Player.TranspositionTable(2);
+
+        table.store(1L, 8, Player.TranspositionTable.Bound.EXACT, 1.0, Player.ActionsType.UP);
+        table.store(2L, 3, Player.TranspositionTable.Bound.EXACT, 2.0, Player.ActionsType.UP);
+        assertThat(table.probe(1L)).isNotEqualTo(Player.TranspositionTable.MISS);
+        assertThat(table.probe(2L)).isNotEqualTo(Player.TranspositionTable.MISS);
+
+        // the newest shallow search replaces the other shallow one
+        table.store(3L, 2, Player.TranspositionTable.Bound.EXACT, 3.0, Player.ActionsType.UP);
+        assertThat(table.probe(1L)).isNotEqualTo(Player.TranspositionTable.MISS);
+        assertThat(table.probe(2L)).isEqualTo(Player.TranspositionTable.MISS);
+        assertThat(table.probe(3L)).isNotEqualTo(Player.TranspositionTable.MISS);
+
+        // a deeper search takes over
+        table.store(4L, 9, Player.TranspositionTable.Bound.EXACT, 4.0, Player.ActionsType.UP);
+        assertThat(table.probe(1L)).isEqualTo(Player.TranspositionTable.MISS);
+        assertThat(Player.TranspositionTable.depthOf(table.probe(4L))).isEqualTo(9);
+
+        table.clear();
+        assertThat(table.probe(4L)).isEqualTo(Player.TranspositionTable.MISS);
+    }
+
+    @Test
+    @DisplayName("lets the current search replace the deep entries of earlier ones")
+    void replacesTheEntriesOfEarlierSearches() {
+        // a single bucket: every key collides
+        Player.TranspositionTable table = new Player.TranspositionTable(2);
+
+        table.store(1L, 12, Player.TranspositionTable.Bound.EXACT, 1.0, Player.ActionsType.UP);
+        table.store(2L, 10, Player.TranspositionTable.Bound.EXACT, 2.0, Player.ActionsType.UP);
+
+        // the deep entries are still probed by the next search
+        table.newSearch();
+        assertThat(Player.TranspositionTable.depthOf(table.probe(1L))).isEqualTo(12);
+        assertThat(Player.TranspositionTable.depthOf(table.probe(2L))).isEqualTo(10);
+
+        // until a shallower entry of the current search takes the first one over
+        table.store(3L, 1, Player.TranspositionTable.Bound.EXACT, 3.0, Player.ActionsType.UP);
+        assertThat(table.probe(1L)).isEqualTo(Player.TranspositionTable.MISS);
+        assertThat(Player.TranspositionTable.depthOf(table.probe(2L))).isEqualTo(10);
+        assertThat(Player.TranspositionTable.depthOf(table.probe(3L))).isEqualTo(1);
+
+        // which then keeps the deepest entry of the current search
+        table.store(4L, 0, Player.TranspositionTable.Bound.EXACT, 4.0, Player.ActionsType.UP);
+        assertThat(table.probe(2L)).isEqualTo(Player.TranspositionTable.MISS);
+        assertThat(Player.TranspositionTable.depthOf(table.probe(3L))).isEqualTo(1);
+        assertThat(Player.TranspositionTable.depthOf(table.probe(4L))).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("keeps the deeper search of a position over a shallower one")
+    void keepsTheDeeperSearchOfAPosition() {
+        Player.TranspositionTable table = new Player.TranspositionTable(16);
+
+        table.store(42L, 6, Player.TranspositionTable.Bound.LOWER, 0.5, Player.ActionsType.LEFT);
+        table.store(42L, 0, Player.TranspositionTable.Bound.EXACT, 0.25, null);
+
+        long entry = table.probe(42L);
+        assertThat(Player.TranspositionTable.depthOf(entry)).isEqualTo(6);
+        assertThat(Player.TranspositionTable.moveOf(entry)).isEqualTo(Player.ActionsType.LEFT);
+
+        // a search at least as deep replaces it
+        table.store(42L, 7, Player.TranspositionTable.Bound.EXACT, 0.75, Player.ActionsType.DOWN);
+
+        entry = table.probe(42L);
+        assertThat(Player.TranspositionTable.depthOf(entry)).isEqualTo(7);
+        assertThat(Player.TranspositionTable.moveOf(entry)).isEqualTo(Player.ActionsType.DOWN);
+    }
+
+    @Test
+    @DisplayName("never returns torn entries to concurrent readers")
+    void neverReturnsTornEntries() throws Exception {
+        // few buckets, so that threads keep overwriting each other
+        Player.TranspositionTable table = new Player.TranspositionTable(64);
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                long seed = thread;
+                futures.add(threads.submit(() -> {
+                    Player.RandomGenerator random = new Player.SplitMixRandom(seed);
+                    int hits = 0;
+                    for (int i = 0; i < 200_000; i++) {
+                        long key = random.nextInt(1024);
+                        long entry = table.probe(key);
+
+                        if (entry != Player.TranspositionTable.MISS) {
+                            // every field is derived from the key
+                            assertThat(Player.TranspositionTable.depthOf(entry)).isEqualTo((int) key);
+                            assertThat(Player.TranspositionTable.scoreOf(entry)).isEqualTo((double) -key);
+                            hits++;
+                        }
+
+                        table.store(key, (int) key, Player.TranspositionTable.Bound.UPPER, -key, null);
+                    }
+                    return hits;
+                }));
+            }
+
+            for (Future<Integer> future : futures) {
+                assertThat(future.get()).isGreaterThan(0);
+            }
+        } finally {
+            threads.shutdown();
+            threads.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
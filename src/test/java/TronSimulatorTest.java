@@ -209,6 +209,78 @@ class TronSimulatorTest implements WithAssertions {
         assertThat(ge.perform(opponentStartSpot, opponentActions[playerActions.length - 1])).isFalse();
     }
 
+    @Test
+    @DisplayName("rewinds to a previous mark")
+    void rewindsToAPreviousMark() {
+        Player.Spot playerStartSpot = new Player.Spot(5, 5);
+        Player.Spot opponentStartSpot = new Player.Spot(15, 10);
+
+        Player.TronSimulator ge = withFreshBattleField(playerStartSpot, opponentStartSpot);
+
+        ge.perform(playerStartSpot, Player.ActionsType.RIGHT);
+        int mark = ge.mark();
+        int availableSpots = ge.getAvailableSpotsCount();
+
+        ge.perform(playerStartSpot, Player.ActionsType.DOWN);
+        ge.perform(opponentStartSpot, Player.ActionsType.UP);
+        ge.perform(playerStartSpot, Player.ActionsType.UP); // won't move otherwise it would kills itself
+        ge.perform(playerStartSpot, Player.ActionsType.RIGHT);
+
+        ge.rewind(mark);
+
+        assertThat(ge.getCurrentSpot(playerStartSpot)).isEqualTo(new Player.Spot(6, 5));
+        assertThat(ge.getCurrentSpot(opponentStartSpot)).isEqualTo(opponentStartSpot);
+        assertThat(ge.getAvailableSpotsCount()).isEqualTo(availableSpots);
+        assertThat(ge.hasBeenVisited(6, 5)).isTrue();
+        assertThat(ge.hasBeenVisited(6, 6)).isFalse();
+        assertThat(ge.hasBeenVisited(7, 6)).isFalse();
+        assertThat(ge.hasBeenVisited(15, 9)).isFalse();
+    }
+
+    @Test
+    @DisplayName("resets to the original snapshot")
+    void resetsToTheOriginalSnapshot() {
+        Player.Spot playerStartSpot = new Player.Spot(5, 5);
+        Player.Spot opponentStartSpot = new Player.Spot(15, 10);
+
+        Player.TronSimulator ge = withFreshBattleField(playerStartSpot, opponentStartSpot);
+        int availableSpots = ge.getAvailableSpotsCount();
+
+        ge.perform(playerStartSpot, Player.ActionsType.RIGHT);
+        ge.perform(opponentStartSpot, Player.ActionsType.LEFT);
+        ge.reset();
+
+        assertThat(ge.getCurrentSpot(playerStartSpot)).isEqualTo(playerStartSpot);
+        assertThat(ge.getCurrentSpot(opponentStartSpot)).isEqualTo(opponentStartSpot);
+        assertThat(ge.getAvailableSpotsCount()).isEqualTo(availableSpots);
+        assertThat(ge.hasBeenVisited(6, 5)).isFalse();
+        assertThat(ge.hasBeenVisited(14, 10)).isFalse();
+        assertThat(ge.perform(playerStartSpot, Player.ActionsType.RIGHT)).isTrue();
+    }
+
+    @Test
+    @DisplayName("can be driven through cell indexes")
+    void canBeDrivenThroughCellIndexes() {
+        Player.Spot playerStartSpot = new Player.Spot(29, 10);
+        Player.Spot opponentStartSpot = new Player.Spot(0, 0);
+
+        Player.TronSimulator ge = withFreshBattleField(playerStartSpot, opponentStartSpot);
+        Player.GridSize gridSize = ge.getGridSize();
+        int player = ge.playerIndex(playerStartSpot);
+
+        assertThat(ge.getCurrentCell(player)).isEqualTo(gridSize.cellOf(29, 10));
+        assertThat(ge.perform(player, Player.ActionsType.RIGHT)).isFalse();
+        assertThat(ge.perform(player, Player.ActionsType.DOWN)).isTrue();
+
+        assertThat(ge.getCurrentCell(player)).isEqualTo(gridSize.cellOf(29, 11));
+        assertThat(ge.getCurrentSpot(playerStartSpot)).isEqualTo(new Player.Spot(29, 11));
+        assertThat(ge.hasBeenVisited(gridSize.cellOf(29, 11))).isTrue();
+        assertThat(ge.hasBeenVisited(gridSize.cellOf(28, 11))).isFalse();
+        assertThat(gridSize.neighbour(gridSize.cellOf(29, 11), Player.ActionsType.LEFT))
+                .isEqualTo(gridSize.cellOf(28, 11));
+        assertThat(gridSize.neighbour(gridSize.cellOf(0, 0), Player.ActionsType.UP)).isEqualTo(-1);
+    }
+
     public static Player.TronSimulator withFreshBattleField(Player.Spot playerStartSpot, Player.Spot opponentStartSpot) {
 
         Player.BattleField battleField = new Player.BattleField();